@@ -0,0 +1,49 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.model.Book;
+import com.bookstore.service.BookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация книги тем же ObjectMapper, что отдаёт JSON в REST API
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BookSerializationBenchmark {
+    
+    private static final int SAMPLE_SIZE = 100;
+    
+    private ObjectMapper objectMapper;
+    
+    private final List<Book> books = new ArrayList<>();
+    
+    private int bookIndex;
+    
+    @Setup(Level.Trial)
+    public void setUp(BookstoreState state) {
+        objectMapper = state.bean(ObjectMapper.class);
+        BookService bookService = state.bean(BookService.class);
+        // Книги загружаются с издательством, авторами и жанрами, как в GET /api/books/{id}
+        state.catalog().bookIds().stream()
+                .limit(SAMPLE_SIZE)
+                .forEach(id -> books.add(bookService.getBookDetails(id)));
+    }
+    
+    @Benchmark
+    public String serializeBook() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(books.get(bookIndex++ % books.size()));
+    }
+    
+    @Benchmark
+    public String serializeBookList() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(books);
+    }
+}
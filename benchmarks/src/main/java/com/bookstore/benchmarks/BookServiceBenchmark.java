@@ -0,0 +1,39 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.model.Book;
+import com.bookstore.service.BookService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BookServiceBenchmark {
+    
+    private static final String[] QUERIES = {"война", "мир сад", "тайн", "город ночь", "память"};
+    
+    private BookService bookService;
+    
+    private int queryIndex;
+    
+    @Setup(Level.Trial)
+    public void setUp(BookstoreState state) {
+        bookService = state.bean(BookService.class);
+    }
+    
+    @Benchmark
+    public List<Book> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+    
+    @Benchmark
+    public List<Book> searchBooks() {
+        String query = QUERIES[queryIndex++ % QUERIES.length];
+        return bookService.searchBooks(query, 20);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.Application;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+// Поднимает контекст приложения на встроенной базе и заполняет синтетический каталог.
+// Базу можно заменить на PostgreSQL через -Dbench.datasource.url/username/password
+@State(Scope.Benchmark)
+public class BookstoreState {
+    
+    @Param({"1000", "10000"})
+    public int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    
+    private CatalogSeeder.Catalog catalog;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(applicationArguments());
+        catalog = new CatalogSeeder(context).seed(catalogSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    public CatalogSeeder.Catalog catalog() {
+        return catalog;
+    }
+    
+    // Аргументы командной строки имеют приоритет над application.properties приложения
+    static String[] applicationArguments() {
+        String url = System.getProperty("bench.datasource.url",
+                "jdbc:h2:mem:bookstore;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        boolean h2 = url.startsWith("jdbc:h2:");
+        return List.of(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=ERROR",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("bench.datasource.username", h2 ? "sa" : "postgres"),
+                "--spring.datasource.password=" + System.getProperty("bench.datasource.password", ""),
+                "--spring.datasource.driver-class-name=" + (h2 ? "org.h2.Driver" : "org.postgresql.Driver"),
+                "--spring.jpa.properties.hibernate.dialect=" + (h2 ? "org.hibernate.dialect.H2Dialect"
+                        : "org.hibernate.dialect.PostgreSQLDialect"),
+                // Схему создаёт Hibernate: миграции рассчитаны только на PostgreSQL
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                // tsvector и pg_trgm есть только в PostgreSQL
+                "--bookstore.search.full-text=" + System.getProperty("bench.search.full-text", String.valueOf(!h2)),
+                // Фоновые обработчики заказов не должны нагружать базу во время замеров
+                "--bookstore.orders.processing.enabled=false"
+        ).toArray(String[]::new);
+    }
+}
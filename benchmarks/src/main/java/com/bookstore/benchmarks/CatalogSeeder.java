@@ -0,0 +1,132 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Детерминированный синтетический каталог: одинаковый размер даёт одинаковые данные,
+// поэтому результаты разных релизов можно сравнивать между собой
+public class CatalogSeeder {
+    
+    private static final int AUTHORS = 200;
+    private static final int PUBLISHERS = 20;
+    private static final int GENRES = 15;
+    private static final int USERS = 50;
+    private static final int REVIEWS_PER_BOOK = 5;
+    private static final int CHUNK_SIZE = 500;
+    private static final int STOCK = 1_000_000;
+    
+    // Слова для названий, чтобы поисковые запросы находили книги
+    static final String[] WORDS = {
+            "война", "мир", "преступление", "наказание", "идиот", "роман", "история", "сад",
+            "море", "город", "ночь", "дорога", "тайна", "сердце", "время", "память",
+            "север", "зима", "огонь", "дом"
+    };
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final EntityManager entityManager;
+    
+    private final Random random = new Random(42);
+    
+    public CatalogSeeder(ApplicationContext context) {
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+    }
+    
+    public Catalog seed(int catalogSize) {
+        Catalog catalog = new Catalog();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < AUTHORS; i++) {
+                Author author = new Author("Автор" + i, "Фамилия" + i);
+                entityManager.persist(author);
+                catalog.authorIds.add(author.getId());
+            }
+            for (int i = 0; i < PUBLISHERS; i++) {
+                Publisher publisher = new Publisher("Издательство " + i);
+                entityManager.persist(publisher);
+                catalog.publisherIds.add(publisher.getId());
+            }
+            for (int i = 0; i < GENRES; i++) {
+                Genre genre = new Genre("Жанр " + i);
+                entityManager.persist(genre);
+                catalog.genreIds.add(genre.getId());
+            }
+            for (int i = 0; i < USERS; i++) {
+                User user = new User("bench" + i, "bench" + i + "@bookstore.com", "{noop}bench", "Пользователь " + i);
+                entityManager.persist(user);
+                catalog.userIds.add(user.getId());
+            }
+        });
+        
+        // Книги вставляются порциями, чтобы контекст персистентности не разрастался
+        for (int start = 0; start < catalogSize; start += CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(start + CHUNK_SIZE, catalogSize);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < to; i++) {
+                    catalog.bookIds.add(persistBook(i, catalog));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return catalog;
+    }
+    
+    private Long persistBook(int index, Catalog catalog) {
+        String title = pick(WORDS) + " " + pick(WORDS) + " " + index;
+        Book book = new Book(title, String.format("978-0-%09d", index),
+                BigDecimal.valueOf(100 + random.nextInt(2000)), 100 + random.nextInt(900), 1850 + random.nextInt(175));
+        book.setDescription("Синтетическая книга: " + pick(WORDS) + " и " + pick(WORDS));
+        book.setPublisher(entityManager.getReference(Publisher.class, pick(catalog.publisherIds)));
+        book.setAuthors(new HashSet<>(Set.of(entityManager.find(Author.class, pick(catalog.authorIds)))));
+        book.setGenres(new HashSet<>(Set.of(entityManager.find(Genre.class, pick(catalog.genreIds)))));
+        entityManager.persist(book);
+        
+        Warehouse warehouse = new Warehouse(book, STOCK);
+        warehouse.setMinThreshold(10);
+        entityManager.persist(warehouse);
+        
+        for (int i = 0; i < REVIEWS_PER_BOOK; i++) {
+            User user = entityManager.getReference(User.class, pick(catalog.userIds));
+            entityManager.persist(new Review(user, book, 1 + random.nextInt(5), "Отзыв " + i));
+        }
+        return book.getId();
+    }
+    
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+    
+    private Long pick(List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+    
+    public static class Catalog {
+        final List<Long> bookIds = new ArrayList<>();
+        final List<Long> authorIds = new ArrayList<>();
+        final List<Long> publisherIds = new ArrayList<>();
+        final List<Long> genreIds = new ArrayList<>();
+        final List<Long> userIds = new ArrayList<>();
+        
+        public List<Long> bookIds() {
+            return bookIds;
+        }
+        
+        public List<Long> userIds() {
+            return userIds;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Нагрузка по HTTP с числом одновременных клиентов больше пула Tomcat (200 потоков).
+// Throughput - запросы в миллисекунду, SampleTime - распределение задержек (p0.99 в отчёте JMH),
+// ok и failed (HttpResults) - успешные и ошибочные ответы
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(256)
+public class HttpLoadBenchmark {
+    
+    private static final String[] QUERIES = {"война", "мир сад", "тайн", "город ночь", "память"};
+    
+    @Benchmark
+    public int getBook(WebServerState state, HttpResults results) throws IOException, InterruptedException {
+        List<Long> bookIds = state.catalog().bookIds();
+        return results.record(state.get("/api/books/" + bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()))));
+    }
+    
+    @Benchmark
+    public int booksPage(WebServerState state, HttpResults results) throws IOException, InterruptedException {
+        return results.record(state.get("/api/books/page?size=20"));
+    }
+    
+    @Benchmark
+    public int searchBooks(WebServerState state, HttpResults results) throws IOException, InterruptedException {
+        String query = QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)];
+        return results.record(state.get("/api/books/search?limit=20&title=" +
+                URLEncoder.encode(query, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Исходы HTTP-запросов потока. JMH выводит поля ok и failed как отдельные метрики рядом с основной
+// (в режиме thrpt - ответы в миллисекунду): ответы не 2xx, в том числе 503 от ограничителя запросов,
+// считаются в основной пропускной способности, поэтому сравнивать режимы нужно по ok
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class HttpResults {
+    
+    public long ok;
+    
+    public long failed;
+    
+    @Setup(Level.Iteration)
+    public void reset() {
+        ok = 0;
+        failed = 0;
+    }
+    
+    int record(int status) {
+        if (status >= 200 && status < 300) {
+            ok++;
+        } else {
+            failed++;
+        }
+        return status;
+    }
+}
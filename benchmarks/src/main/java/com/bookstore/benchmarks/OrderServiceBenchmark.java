@@ -0,0 +1,56 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.User;
+import com.bookstore.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+    
+    private static final int ITEMS_PER_ORDER = 3;
+    
+    private OrderService orderService;
+    
+    private List<Long> bookIds;
+    
+    private List<Long> userIds;
+    
+    private final Random random = new Random(7);
+    
+    @Setup(Level.Trial)
+    public void setUp(BookstoreState state) {
+        orderService = state.bean(OrderService.class);
+        bookIds = state.catalog().bookIds();
+        userIds = state.catalog().userIds();
+    }
+    
+    @Benchmark
+    public Order createOrder() {
+        Order order = new Order();
+        User user = new User();
+        user.setId(userIds.get(random.nextInt(userIds.size())));
+        order.setUser(user);
+        order.setShippingAddress("Москва, ул. Бенчмарковая, 1");
+        
+        // Разные книги в заказе: одинаковые позиции объединяются при резервировании
+        int first = random.nextInt(bookIds.size() - ITEMS_PER_ORDER);
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Book book = new Book();
+            book.setId(bookIds.get(first + i));
+            order.getOrderItems().add(new OrderItem(order, book, 1 + random.nextInt(3), null));
+        }
+        return orderService.createOrder(order);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.ReviewDto;
+import com.bookstore.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ReviewServiceBenchmark {
+    
+    private ReviewService reviewService;
+    
+    private List<Long> bookIds;
+    
+    private int bookIndex;
+    
+    @Setup(Level.Trial)
+    public void setUp(BookstoreState state) {
+        reviewService = state.bean(ReviewService.class);
+        bookIds = state.catalog().bookIds();
+    }
+    
+    @Benchmark
+    public CursorPage<ReviewDto> getReviewsByBook() {
+        Long bookId = bookIds.get(bookIndex++ % bookIds.size());
+        return reviewService.getReviewsByBook(bookId, null, null, 20);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bookstore.benchmarks;
+
+import com.bookstore.Application;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Приложение целиком, с веб-сервером на случайном порту, в одном из режимов потоков:
+// platform - пул потоков Tomcat, virtual - виртуальные потоки (spring.threads.virtual.enabled, нужна Java 21)
+@State(Scope.Benchmark)
+public class WebServerState {
+    
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\":\"([^\"]+)\"");
+    
+    // virtual задаётся явно (-p threads=virtual или platform,virtual): иначе полный прогон падал бы на Java 17
+    @Param({"platform"})
+    public String threads;
+    
+    @Param({"1000"})
+    public int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    
+    private CatalogSeeder.Catalog catalog;
+    
+    private HttpClient client;
+    
+    private String baseUrl;
+    
+    private String authorization;
+    
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        boolean virtual = "virtual".equals(threads);
+        List<String> arguments = new ArrayList<>(Arrays.asList(BookstoreState.applicationArguments()));
+        arguments.add("--server.port=0");
+        arguments.add("--management.server.port=-1");
+        arguments.add("--spring.threads.virtual.enabled=" + virtual);
+        context = new SpringApplicationBuilder(Application.class)
+                .logStartupInfo(false)
+                .run(arguments.toArray(String[]::new));
+        if (virtual && !Threading.VIRTUAL.isActive(context.getEnvironment())) {
+            context.close();
+            throw new IllegalStateException("Режим virtual требует Java 21, запущена Java " + Runtime.version().feature());
+        }
+        catalog = new CatalogSeeder(context).seed(catalogSize);
+        
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        authorization = "Bearer " + issueToken();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+    
+    public CatalogSeeder.Catalog catalog() {
+        return catalog;
+    }
+    
+    // Код ответа; учёт успешных и ошибочных ответов - в HttpResults
+    public int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    // Администратор создаётся DataInitializer при старте приложения
+    private String issueToken() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/token"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"Admin123!\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ACCESS_TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Не удалось получить токен API: " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+}
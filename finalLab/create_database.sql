@@ -4,134 +4,6 @@
 -- Создание базы данных
 CREATE DATABASE bookstore_db;
 
--- Подключение к базе данных
-\c bookstore_db;
-
--- Примечание: Таблицы будут созданы автоматически через Hibernate
--- (spring.jpa.hibernate.ddl-auto=update)
--- Этот скрипт создает только саму базу данных
-
--- Для ручного создания таблиц можно использовать следующий SQL:
-
--- Таблица ролей
-CREATE TABLE IF NOT EXISTS roles (
-    id BIGSERIAL PRIMARY KEY,
-    name VARCHAR(50) UNIQUE NOT NULL
-);
-
--- Таблица пользователей
-CREATE TABLE IF NOT EXISTS users (
-    id BIGSERIAL PRIMARY KEY,
-    username VARCHAR(50) UNIQUE NOT NULL,
-    email VARCHAR(100) UNIQUE NOT NULL,
-    password VARCHAR(255) NOT NULL,
-    full_name VARCHAR(100) NOT NULL,
-    phone VARCHAR(20),
-    address VARCHAR(255)
-);
-
--- Связь пользователей и ролей (многие ко многим)
-CREATE TABLE IF NOT EXISTS user_roles (
-    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    role_id BIGINT NOT NULL REFERENCES roles(id) ON DELETE CASCADE,
-    PRIMARY KEY (user_id, role_id)
-);
-
--- Таблица авторов
-CREATE TABLE IF NOT EXISTS authors (
-    id BIGSERIAL PRIMARY KEY,
-    first_name VARCHAR(100) NOT NULL,
-    last_name VARCHAR(100) NOT NULL,
-    biography TEXT
-);
-
--- Таблица издательств
-CREATE TABLE IF NOT EXISTS publishers (
-    id BIGSERIAL PRIMARY KEY,
-    name VARCHAR(200) UNIQUE NOT NULL,
-    address VARCHAR(255),
-    phone VARCHAR(20),
-    email VARCHAR(100)
-);
-
--- Таблица жанров
-CREATE TABLE IF NOT EXISTS genres (
-    id BIGSERIAL PRIMARY KEY,
-    name VARCHAR(100) UNIQUE NOT NULL,
-    description TEXT
-);
-
--- Таблица книг
-CREATE TABLE IF NOT EXISTS books (
-    id BIGSERIAL PRIMARY KEY,
-    title VARCHAR(500) NOT NULL,
-    isbn VARCHAR(17) UNIQUE NOT NULL,
-    price DECIMAL(10,2) NOT NULL,
-    pages INTEGER NOT NULL,
-    publication_year INTEGER NOT NULL,
-    description TEXT,
-    publisher_id BIGINT NOT NULL REFERENCES publishers(id)
-);
-
--- Связь книг и авторов (многие ко многим)
-CREATE TABLE IF NOT EXISTS book_authors (
-    book_id BIGINT NOT NULL REFERENCES books(id) ON DELETE CASCADE,
-    author_id BIGINT NOT NULL REFERENCES authors(id) ON DELETE CASCADE,
-    PRIMARY KEY (book_id, author_id)
-);
-
--- Связь книг и жанров (многие ко многим)
-CREATE TABLE IF NOT EXISTS book_genres (
-    book_id BIGINT NOT NULL REFERENCES books(id) ON DELETE CASCADE,
-    genre_id BIGINT NOT NULL REFERENCES genres(id) ON DELETE CASCADE,
-    PRIMARY KEY (book_id, genre_id)
-);
-
--- Таблица заказов
-CREATE TABLE IF NOT EXISTS orders (
-    id BIGSERIAL PRIMARY KEY,
-    user_id BIGINT NOT NULL REFERENCES users(id),
-    order_date TIMESTAMP NOT NULL,
-    status VARCHAR(20) NOT NULL,
-    total_amount DECIMAL(10,2) NOT NULL,
-    shipping_address VARCHAR(255),
-    notes TEXT
-);
-
--- Таблица позиций заказа
-CREATE TABLE IF NOT EXISTS order_items (
-    id BIGSERIAL PRIMARY KEY,
-    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
-    book_id BIGINT NOT NULL REFERENCES books(id),
-    quantity INTEGER NOT NULL,
-    price DECIMAL(10,2) NOT NULL
-);
-
--- Таблица отзывов
-CREATE TABLE IF NOT EXISTS reviews (
-    id BIGSERIAL PRIMARY KEY,
-    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    book_id BIGINT NOT NULL REFERENCES books(id) ON DELETE CASCADE,
-    rating INTEGER NOT NULL CHECK (rating >= 1 AND rating <= 5),
-    comment TEXT,
-    review_date TIMESTAMP NOT NULL
-);
-
--- Таблица склада
-CREATE TABLE IF NOT EXISTS warehouse (
-    id BIGSERIAL PRIMARY KEY,
-    book_id BIGINT UNIQUE NOT NULL REFERENCES books(id) ON DELETE CASCADE,
-    quantity INTEGER NOT NULL CHECK (quantity >= 0),
-    min_threshold INTEGER CHECK (min_threshold >= 0)
-);
-
--- Создание индексов для улучшения производительности
-CREATE INDEX IF NOT EXISTS idx_books_title ON books(title);
-CREATE INDEX IF NOT EXISTS idx_books_isbn ON books(isbn);
-CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders(user_id);
-CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
-CREATE INDEX IF NOT EXISTS idx_reviews_book_id ON reviews(book_id);
-CREATE INDEX IF NOT EXISTS idx_reviews_user_id ON reviews(user_id);
-CREATE INDEX IF NOT EXISTS idx_warehouse_book_id ON warehouse(book_id);
-
-
+-- Таблицы и индексы создаются при запуске приложения миграциями Flyway
+-- (src/main/resources/db/migration): V1 - исходная схема, следующие версии - её изменения и индексы.
+-- Для pg_trgm пользователю базы нужны права на CREATE EXTENSION (PostgreSQL 13+ - владелец базы).
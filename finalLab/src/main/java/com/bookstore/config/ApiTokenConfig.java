@@ -0,0 +1,97 @@
+package com.bookstore.config;
+
+import com.bookstore.security.ApiTokenService;
+import com.bookstore.security.CachingJwtDecoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+// Подпись токенов API (HMAC SHA-256) общим секретом bookstore.security.jwt.secret
+@Configuration
+public class ApiTokenConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokenConfig.class);
+    
+    private static final int MIN_SECRET_BYTES = 32;
+    
+    @Value("${bookstore.security.jwt.secret:}")
+    private String secret;
+    
+    @Value("${bookstore.security.jwt.ttl-minutes:30}")
+    private long ttlMinutes;
+    
+    @Value("${bookstore.security.jwt.principal-cache-size:10000}")
+    private long principalCacheSize;
+    
+    // Без заданного секрета генерируется случайный: токены не переживают перезапуск
+    // и не принимаются другими экземплярами приложения
+    @Bean
+    public SecretKey apiTokenKey() {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("bookstore.security.jwt.secret не задан, токены API подписываются случайным ключом");
+            key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("bookstore.security.jwt.secret должен быть не короче " + MIN_SECRET_BYTES + " байт");
+            }
+        }
+        return new SecretKeySpec(key, "HmacSHA256");
+    }
+    
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey apiTokenKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(apiTokenKey));
+    }
+    
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey apiTokenKey, ApiTokenService apiTokenService, MeterRegistry meterRegistry) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(apiTokenKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ApiTokenService.ISSUER));
+        
+        Cache<String, Jwt> verified = Caffeine.newBuilder()
+                .maximumSize(principalCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "api-tokens");
+        return new CachingJwtDecoder(decoder, verified, apiTokenService);
+    }
+    
+    // Роли берутся из токена как есть (ROLE_ADMIN и т.д.), имя пользователя - из sub
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(ApiTokenService.ROLES_CLAIM);
+        authorities.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return converter;
+    }
+}
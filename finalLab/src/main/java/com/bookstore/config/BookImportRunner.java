@@ -0,0 +1,54 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.DataFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Импорт каталога из файла при запуске:
+// java -jar bookstore-1.0.0-exec.jar --bookstore.import.file=books.csv --spring.main.web-application-type=none
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty("bookstore.import.file")
+public class BookImportRunner implements CommandLineRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookImportRunner.class);
+    
+    @Autowired
+    private BookImportService bookImportService;
+    
+    @Value("${bookstore.import.file}")
+    private String file;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        Path path = Path.of(file);
+        DataFormat format = file.toLowerCase().endsWith(".csv") ? DataFormat.CSV : DataFormat.NDJSON;
+        logger.info("Импорт каталога из {} ({})", path, format);
+        
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            ImportReport total = bookImportService.importBooks(input, format, report -> {
+                logger.info("Порция {}: обработано {}, импортировано {}, ошибок {}",
+                        report.getChunk(), report.getProcessed(), report.getImported(), report.getFailed());
+                report.getErrors().forEach(error ->
+                        logger.warn("Запись {} (ISBN {}): {}", error.getRecord(), error.getIsbn(), error.getMessage()));
+            });
+            total.getErrors().forEach(error -> logger.error("Запись {}: {}", error.getRecord(), error.getMessage()));
+            logger.info("Импорт завершён: обработано {}, импортировано {}, ошибок {}",
+                    total.getProcessed(), total.getImported(), total.getFailed());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String AUTHORS = "authors";
+    public static final String GENRES = "genres";
+    public static final String PUBLISHERS = "publishers";
+    
+    // Отрендеренные фрагменты страниц каталога (FragmentCache), свой размер и время жизни
+    public static final String FRAGMENTS = "fragments";
+    
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String spec,
+                                     @Value("${bookstore.web.fragment-cache.spec}") String fragmentSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCacheSpecification(spec);
+        // Кэши создаются заранее, чтобы их метрики регистрировались при старте
+        caffeineCacheManager.setCacheNames(List.of(AUTHORS, GENRES, PUBLISHERS));
+        caffeineCacheManager.registerCustomCache(FRAGMENTS, Caffeine.from(fragmentSpec).build());
+        caffeineCacheManager.setAllowNullValues(false);
+        // Очистка после коммита: иначе параллельный запрос может закэшировать ещё не изменённые данные
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,110 @@
+package com.bookstore.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Ограничение числа одновременно обрабатываемых запросов. С виртуальными потоками пул Tomcat больше
+// не сдерживает нагрузку, и тысячи запросов встали бы в очередь Hikari, каждый со своим таймаутом.
+// Здесь запрос ждёт разрешения не дольше queueTimeoutMs, затем получает 503 с Retry-After
+class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final Semaphore permits;
+    
+    private final long queueTimeoutMs;
+    
+    private final Counter rejected;
+    
+    ConcurrencyLimitFilter(int maxConcurrentRequests, long queueTimeoutMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        Gauge.builder("bookstore.web.requests.active", permits, p -> maxConcurrentRequests - p.availablePermits())
+                .description("Запросы, получившие разрешение ConcurrencyLimitFilter")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bookstore.web.requests.rejected")
+                .description("Запросы, не дождавшиеся разрешения (503)")
+                .register(meterRegistry);
+    }
+    
+    // Статика в базу не ходит
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/css/") || path.startsWith("/js/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен, повторите попытку позже");
+            return;
+        }
+        Release release = new Release();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Потоковый ответ продолжает работать с базой после выхода из фильтра
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+    
+    private class Release implements AsyncListener, Runnable {
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Component
@@ -150,6 +151,13 @@ public class DataInitializer implements CommandLineRunner {
             warehouse3.setMinThreshold(10);
             warehouseRepository.save(warehouse3);
         }
+        
+        // Заполнение поискового текста для книг, созданных до появления полнотекстового поиска
+        List<Book> booksWithoutSearchText = bookRepository.findBySearchTextIsNull();
+        if (!booksWithoutSearchText.isEmpty()) {
+            booksWithoutSearchText.forEach(Book::refreshSearchText);
+            bookRepository.saveAll(booksWithoutSearchText);
+        }
     }
 }
 
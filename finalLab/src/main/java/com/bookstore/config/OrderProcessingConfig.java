@@ -0,0 +1,42 @@
+package com.bookstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Пул фоновой обработки заказов. Число одновременно обрабатываемых заказов ограничивает
+// OrderProcessingService (bookstore.orders.processing.workers), здесь выбирается вид потоков.
+@Configuration
+@ConditionalOnProperty(name = "bookstore.orders.processing.enabled", matchIfMissing = true)
+public class OrderProcessingConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderProcessingConfig.class);
+    
+    @Value("${bookstore.orders.processing.workers:4}")
+    private int workers;
+    
+    // По умолчанию - как у запросов (spring.threads.virtual.enabled)
+    @Value("${bookstore.orders.processing.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+    
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService orderProcessingExecutor() {
+        if (virtualThreads) {
+            // Проект собирается под Java 17, поэтому фабрика виртуальных потоков ищется во время выполнения
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Виртуальные потоки недоступны в Java {}, заказы обрабатывает пул из {} потоков",
+                        Runtime.version().feature(), workers);
+            }
+        }
+        return Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("order-worker-"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.bookstore.config;
+
+import com.bookstore.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Хеши паролей хранятся с префиксом алгоритма ({bcrypt}...). Новые пароли кодируются алгоритмом encoding-id
+// (для bcrypt - со стоимостью bcrypt-strength); старые хеши без префикса или с меньшей стоимостью
+// проверяются как раньше и перекодируются при следующем успешном входе (UserDetailsServiceImpl.updatePassword)
+@Configuration
+public class PasswordEncoderConfig {
+    
+    @Value("${bookstore.security.password.encoding-id:bcrypt}")
+    private String encodingId;
+    
+    @Value("${bookstore.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
+    // 0 - по числу процессоров
+    @Value("${bookstore.security.password.hashing-threads:0}")
+    private int hashingThreads;
+    
+    @Value("${bookstore.security.password.queue-capacity:50}")
+    private int queueCapacity;
+    
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalStateException("Неизвестный алгоритм хеширования паролей: " + encodingId);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+        // Хеши, сохранённые до появления префиксов, - это BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bookstore.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// Событие JFR jdk.VirtualThreadPinned: виртуальный поток блокировался внутри synchronized или нативного
+// вызова и не отпустил несущий поток дольше порога. Такие места журналируются со стеком
+// и считаются в bookstore.threads.pinned - их стоит переписать на ReentrantLock
+class PinnedThreadMonitor implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    private static final int STACK_DEPTH = 8;
+    
+    private final RecordingStream stream;
+    
+    PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        Counter pinned = Counter.builder("bookstore.threads.pinned")
+                .description("Блокировки виртуальных потоков с закреплением несущего потока")
+                .register(meterRegistry);
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            logger.warn("Виртуальный поток закреплён за несущим на {} мс:\n{}",
+                    event.getDuration().toMillis(), stackTrace(event));
+        });
+        stream.startAsync();
+    }
+    
+    private static String stackTrace(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "    (стек недоступен)";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(STACK_DEPTH)
+                .map(PinnedThreadMonitor::frame)
+                .collect(Collectors.joining("\n"));
+    }
+    
+    private static String frame(RecordedFrame frame) {
+        return "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+    
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.bookstore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Чтение с реплик (bookstore.datasource.replicas.*): транзакции readOnly обслуживают реплики,
+// остальные запросы и миграции - основная база из spring.datasource.*.
+// Без bookstore.datasource.replicas.enabled=true используется обычный DataSource Spring Boot.
+@Configuration
+@ConditionalOnProperty(name = "bookstore.datasource.replicas.enabled")
+public class ReadReplicaConfig {
+    
+    @Value("${bookstore.datasource.replicas.urls:}")
+    private String[] urls;
+    
+    @Value("${bookstore.datasource.replicas.username:${spring.datasource.username:}}")
+    private String username;
+    
+    @Value("${bookstore.datasource.replicas.password:${spring.datasource.password:}}")
+    private String password;
+    
+    @Value("${bookstore.datasource.replicas.pool-size:10}")
+    private int poolSize;
+    
+    @Value("${bookstore.datasource.replicas.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+    
+    @Value("${bookstore.datasource.replicas.check-lag:true}")
+    private boolean checkLag;
+    
+    @Value("${bookstore.datasource.replicas.max-lag-seconds:5}")
+    private double maxLagSeconds;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank()) {
+                replicas.add(replicaPool("replica-" + (replicas.size() + 1), url.trim(), meterRegistry));
+            }
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("Чтение с реплик включено, но bookstore.datasource.replicas.urls не задан");
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, checkLag, maxLagSeconds, meterRegistry);
+    }
+    
+    // Пул каждой реплики публикует свои метрики hikaricp.* с тегом pool=replica-N
+    private HikariDataSource replicaPool(String name, String url, MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(poolSize);
+        pool.setConnectionTimeout(connectionTimeoutMs);
+        pool.setReadOnly(true);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+    
+    // Физическое соединение берётся при первом запросе в транзакции, когда признак readOnly уже выставлен
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    // Соединение возвращается в пул после каждой транзакции. По умолчанию сессия держит его до закрытия,
+    // а при open-in-view все транзакции запроса шли бы в базу, выбранную для первой из них
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
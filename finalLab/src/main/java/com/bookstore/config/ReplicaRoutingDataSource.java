@@ -0,0 +1,162 @@
+package com.bookstore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Выбор базы для соединения: в транзакции readOnly - одна из доступных реплик по кругу, иначе основная база.
+// Реплики периодически проверяются; недоступная или отстающая больше допустимого реплика исключается,
+// и её чтение уходит на основную базу до следующей успешной проверки.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    // Отставание реплики PostgreSQL в секундах. 0, если всё полученное уже применено
+    // (простаивающая основная база не считается отставанием) или база не является репликой
+    private static final String POSTGRES_LAG_QUERY =
+            "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)";
+    
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    
+    private final DataSource primary;
+    
+    private final List<Replica> replicas;
+    
+    private final boolean checkLag;
+    
+    private final double maxLagSeconds;
+    
+    private final AtomicInteger next = new AtomicInteger();
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                    boolean checkLag, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.checkLag = checkLag;
+        this.maxLagSeconds = maxLagSeconds;
+        for (Replica replica : replicas) {
+            Gauge.builder("bookstore.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("bookstore.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Replica replica = nextReplica();
+            if (replica != null) {
+                try {
+                    return replica.pool.getConnection();
+                } catch (SQLException e) {
+                    replica.markUnavailable(e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+    
+    private Replica nextReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    // До первой проверки реплики считаются недоступными, поэтому сразу после старта чтение идёт на основную базу
+    @Scheduled(fixedDelayString = "${bookstore.datasource.replicas.check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                double lag = checkLag ? queryLag(connection) : 0;
+                if (!checkLag && !connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUnavailable("соединение не прошло проверку");
+                } else if (lag > maxLagSeconds) {
+                    replica.lagSeconds = lag;
+                    replica.markUnavailable(String.format("отставание %.1f с", lag));
+                } else {
+                    replica.markAvailable(lag);
+                }
+            } catch (SQLException e) {
+                replica.markUnavailable(e.getMessage());
+            }
+        }
+    }
+    
+    private double queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(POSTGRES_LAG_QUERY)) {
+            resultSet.next();
+            return resultSet.getDouble(1);
+        }
+    }
+    
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+    
+    private static class Replica {
+        
+        private final HikariDataSource pool;
+        
+        private volatile boolean available;
+        
+        private volatile double lagSeconds = Double.NaN;
+        
+        private volatile boolean checked;
+        
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+        
+        String name() {
+            return pool.getPoolName();
+        }
+        
+        void markAvailable(double lag) {
+            lagSeconds = lag;
+            checked = true;
+            if (!available) {
+                available = true;
+                logger.info("Реплика {} обслуживает чтение (отставание {} с)", name(), lag);
+            }
+        }
+        
+        void markUnavailable(String reason) {
+            if (available || !checked) {
+                available = false;
+                checked = true;
+                logger.warn("Реплика {} исключена из чтения, запросы идут на основную базу: {}", name(), reason);
+            }
+        }
+    }
+}
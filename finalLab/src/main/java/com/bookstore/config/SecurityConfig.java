@@ -1,16 +1,33 @@
 package com.bookstore.config;
 
+import com.bookstore.security.PasswordHashingRejectedException;
 import com.bookstore.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -19,26 +36,103 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private PasswordEncoder passwordEncoder;
     
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+    
+    // После успешного входа хеш в устаревшем формате перекодируется (PasswordEncoderConfig)
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
         return provider;
     }
     
+    // Очередь хеширования паролей заполнена - 429 вместо повторного показа формы входа
+    private AuthenticationFailureHandler loginFailureHandler() {
+        AuthenticationFailureHandler invalidCredentials = new SimpleUrlAuthenticationFailureHandler("/login?error=true");
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingRejectedException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), exception.getMessage());
+            } else {
+                invalidCredentials.onAuthenticationFailure(request, response, exception);
+            }
+        };
+    }
+    
+    // Проверка пароля для выдачи токена API (POST /api/auth/token)
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        return new ProviderManager(authenticationProvider());
+    }
+    
+    // Actuator на порту management.server.port: у него свой контейнер сервлетов и свои сессии,
+    // поэтому остальные эндпоинты проверяются по Basic-аутентификации администратора без сессии.
+    // Health и сбор метрик Prometheus открыты - порт не публикуется наружу. Все запросы на этот порт
+    // (в том числе к несуществующим адресам) обрабатываются здесь: правила остальных цепочек привязаны
+    // к DispatcherServlet основного приложения и в контейнере actuator не работают
+    @Bean
+    @Order(0)
+    public SecurityFilterChain managementSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(new OrRequestMatcher(EndpointRequest.toAnyEndpoint(),
+                    request -> request.getLocalPort() == managementPort))
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                .anyRequest().hasAuthority("ROLE_ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable())
+            .authenticationProvider(authenticationProvider());
+        
+        return http.build();
+    }
+    
+    // /api/**: токен в заголовке Authorization: Bearer, сессия для клиентов API не создаётся.
+    // Сессия, уже открытая входом через форму, по-прежнему принимается (ссылки на API со страниц),
+    // но изменяющие запросы с ней требуют CSRF-токен; запросы с Bearer-токеном от CSRF освобождены
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http,
+                                                      JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+        http
+            .securityMatcher("/api/**")
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
+                .requestMatchers("/api/auth/users/**").hasAuthority("ROLE_ADMIN") // Отзыв токенов пользователя
+                .requestMatchers("/api/export/**").hasAnyAuthority("ROLE_ADMIN", "ROLE_MANAGER") // Выгрузка всей истории
+                .requestMatchers("/api/books/import").hasAnyAuthority("ROLE_ADMIN", "ROLE_MANAGER") // Массовый импорт каталога
+                .requestMatchers("/api/books/ratings/rebuild").hasAuthority("ROLE_ADMIN") // Полный пересчёт рейтингов
+                .anyRequest().authenticated()
+            )
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+            .oauth2ResourceServer(resourceServer -> resourceServer
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
+            )
+            .csrf(csrf -> csrf
+                .ignoringRequestMatchers(new AntPathRequestMatcher("/api/auth/token", "POST"))
+                .ignoringRequestMatchers(request -> {
+                    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+                    return authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7);
+                })
+            )
+            .authenticationProvider(authenticationProvider());
+        
+        return http.build();
+    }
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/landing", "/register", "/login", "/home", "/css/**", "/js/**", "/error", 
                                 "/swagger-ui/**", "/api-docs/**", "/v3/api-docs/**").permitAll()
-                .requestMatchers("/api/**").authenticated()
                 .requestMatchers("/web/books").permitAll() // Просмотр каталога доступен всем
                 .requestMatchers("/web/books/{id}").permitAll() // Просмотр книги доступен всем
                 .requestMatchers("/web/books/new", "/web/books/{id}/edit", "/web/books/{id}/delete")
@@ -53,7 +147,7 @@ public class SecurityConfig {
             .formLogin(form -> form
                 .loginPage("/login")
                 .defaultSuccessUrl("/home", true)
-                .failureUrl("/login?error=true")
+                .failureHandler(loginFailureHandler())
                 .permitAll()
             )
             .logout(logout -> logout
@@ -61,9 +155,6 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/login?logout=true")
                 .permitAll()
             )
-            .csrf(csrf -> csrf
-                .ignoringRequestMatchers("/api/**")
-            )
             .authenticationProvider(authenticationProvider());
         
         return http.build();
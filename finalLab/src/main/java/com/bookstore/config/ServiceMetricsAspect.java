@@ -0,0 +1,45 @@
+package com.bookstore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Таймер bookstore.service.calls на каждый публичный метод бинов из com.bookstore.service.
+// Теги - класс, метод и класс исключения (или none): их число ограничено числом методов.
+// Вызовы внутри одного сервиса (this.method()) через прокси не проходят и отдельно не считаются.
+// Вызываемый метод запоминается в SqlTraceContext, чтобы SqlStatementTracer подписывал им запросы к базе
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("within(com.bookstore.service..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+        String outerService = SqlTraceContext.enterService(className + "." + methodName);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            SqlTraceContext.exitService(outerService);
+            sample.stop(Timer.builder("bookstore.service.calls")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
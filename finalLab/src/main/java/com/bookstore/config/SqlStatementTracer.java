@@ -0,0 +1,214 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.SqlStatementReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Время каждого запроса к базе (прокси datasource-proxy вокруг DataSource, SqlTracingConfig).
+// Запросы сводятся к нормализованному виду (литералы и списки IN заменены на ?), по нему копится
+// статистика для /actuator/sqlstats. В журнал попадают только медленные запросы и случайная выборка
+// остальных; запись выполняет отдельный поток, а при переполнении его очереди сообщения отбрасываются
+public class SqlStatementTracer implements QueryExecutionListener, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementTracer.class);
+    
+    // Сюда сводятся запросы сверх max-statements, чтобы статистика не росла без ограничений
+    private static final String OTHER_STATEMENTS = "(остальные запросы)";
+    
+    private static final String NONE = "-";
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    
+    private final long slowThresholdMs;
+    
+    private final double sampleRate;
+    
+    private final int nPlusOneThreshold;
+    
+    private final int maxStatements;
+    
+    private final Map<String, StatementStats> statistics = new ConcurrentHashMap<>();
+    
+    // Hibernate повторяет одни и те же строки SQL, нормализация выполняется один раз на строку
+    private final Cache<String, String> normalized;
+    
+    private final ThreadPoolExecutor logExecutor;
+    
+    private final Counter slowStatements;
+    
+    private final Counter droppedLogs;
+    
+    private final MeterRegistry meterRegistry;
+    
+    public SqlStatementTracer(long slowThresholdMs, double sampleRate, int nPlusOneThreshold,
+                              int maxStatements, int logQueueCapacity, MeterRegistry meterRegistry) {
+        this.slowThresholdMs = slowThresholdMs;
+        this.sampleRate = sampleRate;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxStatements = maxStatements;
+        this.meterRegistry = meterRegistry;
+        this.normalized = Caffeine.newBuilder().maximumSize(maxStatements * 4L).build();
+        this.slowStatements = Counter.builder("bookstore.sql.slow")
+                .description("Запросы дольше bookstore.sql.trace.slow-threshold-ms")
+                .register(meterRegistry);
+        this.droppedLogs = Counter.builder("bookstore.sql.log.dropped")
+                .description("Сообщения журнала SQL, отброшенные при заполненной очереди")
+                .register(meterRegistry);
+        this.logExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(logQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sql-trace-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedLogs.increment());
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+    
+    // В пакете все запросы обычно одинаковые, время пакета относится к первому из них
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.get(0).getQuery();
+        String statement = normalized.get(sql, SqlStatementTracer::normalize);
+        long elapsedMs = execInfo.getElapsedTime();
+        SqlTraceContext context = SqlTraceContext.current();
+        String route = context.route() != null ? context.route() : NONE;
+        String service = context.service() != null ? context.service() : NONE;
+        
+        statisticsFor(statement).record(elapsedMs, route, service);
+        context.countStatement(statement);
+        
+        if (elapsedMs >= slowThresholdMs) {
+            slowStatements.increment();
+            String batch = execInfo.isBatch() ? " (пакет из " + execInfo.getBatchSize() + ")" : "";
+            logExecutor.execute(() -> logger.warn("Медленный запрос {} мс{} [{} / {}]: {}",
+                    elapsedMs, batch, route, service, statement));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logExecutor.execute(() -> logger.info("Запрос {} мс [{} / {}]: {}", elapsedMs, route, service, statement));
+        }
+    }
+    
+    // Конец HTTP-запроса: одинаковые SELECT, выполненные nPlusOneThreshold раз и больше, - признак N+1
+    void completeRequest(String route, Map<String, Integer> statements) {
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+            int executions = entry.getValue();
+            total += executions;
+            if (executions >= nPlusOneThreshold && entry.getKey().regionMatches(true, 0, "select", 0, 6)) {
+                Counter.builder("bookstore.sql.n_plus_one")
+                        .description("HTTP-запросы с повторяющимся SELECT")
+                        .tag("route", route)
+                        .register(meterRegistry)
+                        .increment();
+                String statement = entry.getKey();
+                logExecutor.execute(() -> logger.warn("Возможный N+1: {} выполнений за запрос [{}]: {}",
+                        executions, route, statement));
+            }
+        }
+        DistributionSummary.builder("bookstore.sql.statements.per.request")
+                .description("Число запросов к базе за HTTP-запрос")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(total);
+    }
+    
+    // Самые медленные запросы по максимальному времени выполнения
+    public List<SqlStatementReport> slowest(int limit) {
+        return statistics.entrySet().stream()
+                .map(entry -> entry.getValue().toReport(entry.getKey()))
+                .sorted(Comparator.comparingLong(SqlStatementReport::getMaxMs)
+                        .thenComparingLong(SqlStatementReport::getTotalMs)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+    
+    public void reset() {
+        statistics.clear();
+    }
+    
+    @Override
+    public void close() {
+        logExecutor.shutdown();
+    }
+    
+    private StatementStats statisticsFor(String statement) {
+        StatementStats stats = statistics.get(statement);
+        if (stats != null) {
+            return stats;
+        }
+        String key = statistics.size() < maxStatements ? statement : OTHER_STATEMENTS;
+        return statistics.computeIfAbsent(key, k -> new StatementStats());
+    }
+    
+    static String normalize(String sql) {
+        String statement = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        statement = STRING_LITERAL.matcher(statement).replaceAll("?");
+        statement = NUMBER_LITERAL.matcher(statement).replaceAll("?");
+        return IN_LIST.matcher(statement).replaceAll("(?)");
+    }
+    
+    private static class StatementStats {
+        
+        private final LongAdder count = new LongAdder();
+        
+        private final LongAdder totalMs = new LongAdder();
+        
+        private final AtomicLong maxMs = new AtomicLong(-1);
+        
+        private volatile String slowestRoute;
+        
+        private volatile String slowestService;
+        
+        void record(long elapsedMs, String route, String service) {
+            count.increment();
+            totalMs.add(elapsedMs);
+            long max = maxMs.get();
+            while (elapsedMs > max) {
+                if (maxMs.compareAndSet(max, elapsedMs)) {
+                    slowestRoute = route;
+                    slowestService = service;
+                    break;
+                }
+                max = maxMs.get();
+            }
+        }
+        
+        SqlStatementReport toReport(String statement) {
+            return new SqlStatementReport(statement, count.sum(), totalMs.sum(), Math.max(maxMs.get(), 0),
+                    slowestRoute, slowestService);
+        }
+    }
+}
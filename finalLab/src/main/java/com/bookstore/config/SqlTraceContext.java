@@ -0,0 +1,65 @@
+package com.bookstore.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Чем занят текущий поток: маршрут HTTP-запроса (SqlTraceInterceptor) и метод сервиса (ServiceMetricsAspect).
+// По ним SqlStatementTracer подписывает запросы к базе; в пределах HTTP-запроса здесь же считаются
+// выполнения каждого нормализованного запроса для поиска N+1
+final class SqlTraceContext {
+    
+    private static final ThreadLocal<SqlTraceContext> CURRENT = ThreadLocal.withInitial(SqlTraceContext::new);
+    
+    private String route;
+    
+    private String service;
+    
+    private Map<String, Integer> requestStatements;
+    
+    private SqlTraceContext() {
+    }
+    
+    static SqlTraceContext current() {
+        return CURRENT.get();
+    }
+    
+    // Возвращает предыдущий метод: вызовы сервисов вложены, после выхода восстанавливается внешний
+    static String enterService(String service) {
+        SqlTraceContext context = current();
+        String previous = context.service;
+        context.service = service;
+        return previous;
+    }
+    
+    static void exitService(String previous) {
+        current().service = previous;
+    }
+    
+    static void beginRequest(String route) {
+        SqlTraceContext context = current();
+        context.route = route;
+        context.requestStatements = new HashMap<>();
+    }
+    
+    // Счётчики выполнений запросов за HTTP-запрос; контекст потока очищается
+    static Map<String, Integer> endRequest() {
+        SqlTraceContext context = current();
+        Map<String, Integer> statements = context.requestStatements;
+        CURRENT.remove();
+        return statements != null ? statements : Map.of();
+    }
+    
+    String route() {
+        return route;
+    }
+    
+    String service() {
+        return service;
+    }
+    
+    void countStatement(String statement) {
+        if (requestStatements != null) {
+            requestStatements.merge(statement, 1, Integer::sum);
+        }
+    }
+}
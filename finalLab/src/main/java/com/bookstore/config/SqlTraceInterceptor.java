@@ -0,0 +1,52 @@
+package com.bookstore.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Маршрут (метод и шаблон пути, как тег uri в http.server.requests) для подписи запросов к базе
+// и подсчёт повторяющихся запросов за время обработки HTTP-запроса
+class SqlTraceInterceptor implements AsyncHandlerInterceptor {
+    
+    private final SqlStatementTracer tracer;
+    
+    SqlTraceInterceptor(SqlStatementTracer tracer) {
+        this.tracer = tracer;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Повторная отправка после асинхронной обработки - тот же HTTP-запрос, он уже учтён
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        SqlTraceContext.beginRequest(request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN"));
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        complete();
+    }
+    
+    // Потоковый ответ дописывается в другом потоке, учитываются запросы до его начала
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        complete();
+    }
+    
+    private void complete() {
+        String route = SqlTraceContext.current().route();
+        Map<String, Integer> statements = SqlTraceContext.endRequest();
+        if (route != null) {
+            tracer.completeRequest(route, statements);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.SqlStatementReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Трассировка SQL (bookstore.sql.trace.*) вместо spring.jpa.show-sql: DataSource приложения
+// оборачивается прокси, который замеряет каждый запрос (SqlStatementTracer)
+@Configuration
+@ConditionalOnProperty(name = "bookstore.sql.trace.enabled")
+public class SqlTracingConfig {
+    
+    @Value("${bookstore.sql.trace.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+    
+    @Value("${bookstore.sql.trace.sample-rate:0}")
+    private double sampleRate;
+    
+    @Value("${bookstore.sql.trace.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+    
+    @Value("${bookstore.sql.trace.max-statements:1000}")
+    private int maxStatements;
+    
+    @Value("${bookstore.sql.trace.log-queue-capacity:1000}")
+    private int logQueueCapacity;
+    
+    @Bean
+    public SqlStatementTracer sqlStatementTracer(MeterRegistry meterRegistry) {
+        return new SqlStatementTracer(slowThresholdMs, sampleRate, nPlusOneThreshold,
+                maxStatements, logQueueCapacity, meterRegistry);
+    }
+    
+    // Оборачивается только бин dataSource, которым пользуются JPA и Flyway (при чтении с реплик -
+    // маршрутизирующий DataSource из ReadReplicaConfig); пулы Hikari под ним остаются как есть
+    @Bean
+    public static BeanPostProcessor sqlTracingDataSourcePostProcessor(ObjectProvider<SqlStatementTracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(tracer.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public WebMvcConfigurer sqlTraceWebConfigurer(SqlStatementTracer tracer) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new SqlTraceInterceptor(tracer));
+            }
+        };
+    }
+    
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatementTracer tracer) {
+        return new SqlStatsEndpoint(tracer);
+    }
+    
+    // /actuator/sqlstats на порту management.server.port (только администратор):
+    // самые медленные нормализованные запросы с маршрутом и методом сервиса самого долгого выполнения
+    @Endpoint(id = "sqlstats")
+    public static class SqlStatsEndpoint {
+        
+        private final SqlStatementTracer tracer;
+        
+        SqlStatsEndpoint(SqlStatementTracer tracer) {
+            this.tracer = tracer;
+        }
+        
+        @ReadOperation
+        public List<SqlStatementReport> slowest(@Nullable Integer limit) {
+            return tracer.slowest(limit != null && limit > 0 ? Math.min(limit, 100) : 20);
+        }
+        
+        @DeleteOperation
+        public void reset() {
+            tracer.reset();
+        }
+    }
+}
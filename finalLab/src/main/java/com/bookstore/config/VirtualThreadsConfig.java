@@ -0,0 +1,68 @@
+package com.bookstore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+// Режим виртуальных потоков (spring.threads.virtual.enabled=true, Java 21+). Запросы Tomcat, асинхронные
+// ответы MVC и задачи applicationTaskExecutor Spring Boot переводит на виртуальные потоки сам,
+// обработчики заказов - OrderProcessingConfig. Здесь - то, что при этом перестаёт ограничивать пул
+// потоков: число одновременных запросов, привязанное к размеру пула соединений, и поиск закреплений
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled")
+public class VirtualThreadsConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+    
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+    
+    // 0 - requests-per-connection запросов на соединение пула
+    @Value("${bookstore.web.virtual-threads.max-concurrent-requests:0}")
+    private int maxConcurrentRequests;
+    
+    @Value("${bookstore.web.virtual-threads.requests-per-connection:4}")
+    private int requestsPerConnection;
+    
+    @Value("${bookstore.web.virtual-threads.queue-timeout-ms:1000}")
+    private long queueTimeoutMs;
+    
+    @Value("${bookstore.web.virtual-threads.pinned-threshold-ms:20}")
+    private long pinnedThresholdMs;
+    
+    public VirtualThreadsConfig(Environment environment) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            logger.warn("Виртуальные потоки недоступны в Java {}, запросы обслуживает пул потоков Tomcat",
+                    Runtime.version().feature());
+        }
+    }
+    
+    // После фильтра метрик (503 попадают в http.server.requests), до Spring Security
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry) {
+        int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : connectionPoolSize * requestsPerConnection;
+        logger.info("Виртуальные потоки: одновременно обрабатывается не больше {} запросов", limit);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limit, queueTimeoutMs, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+    
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(Duration.ofMillis(pinnedThresholdMs), meterRegistry);
+    }
+}
@@ -2,10 +2,12 @@ package com.bookstore.controller.api;
 
 import com.bookstore.model.Author;
 import com.bookstore.service.AuthorService;
+import com.bookstore.service.CatalogVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,10 +22,16 @@ public class AuthorController {
     @Autowired
     private AuthorService authorService;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogHttpCache catalogHttpCache;
+    
     @GetMapping
     @Operation(summary = "Получить всех авторов", description = "Возвращает список всех авторов")
-    public ResponseEntity<List<Author>> getAllAuthors() {
-        return ResponseEntity.ok(authorService.getAllAuthors());
+    public ResponseEntity<List<Author>> getAllAuthors(@RequestHeader HttpHeaders headers) {
+        return catalogHttpCache.get(headers, catalogVersionService::getAuthorsETag, authorService::getAllAuthors);
     }
     
     @GetMapping("/{id}")
@@ -1,15 +1,32 @@
 package com.bookstore.controller.api;
 
+import com.bookstore.dto.BookSummaryDto;
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.ImportReport;
+import com.bookstore.dto.RatingRebuildReport;
 import com.bookstore.model.Book;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.BookRatingService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogVersionService;
+import com.bookstore.service.DataFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -20,22 +37,45 @@ public class BookController {
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private BookImportService bookImportService;
+    
+    @Autowired
+    private BookRatingService bookRatingService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogHttpCache catalogHttpCache;
+    
     @GetMapping
     @Operation(summary = "Получить все книги", description = "Возвращает список всех книг")
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(@RequestHeader HttpHeaders headers) {
+        return catalogHttpCache.get(headers, catalogVersionService::getBooksETag, bookService::getAllBooks);
+    }
+    
+    @GetMapping("/page")
+    @Operation(summary = "Получить страницу каталога", description = "Возвращает страницу кратких карточек книг (keyset-пагинация по курсору)")
+    public ResponseEntity<CursorPage<BookSummaryDto>> getBooksPage(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.getBooksPage(cursor, size));
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Получить книгу по ID", description = "Возвращает книгу по указанному ID")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
+        return catalogHttpCache.get(headers, () -> catalogVersionService.getBookETag(id), () -> bookService.getBookDetails(id));
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Поиск книг", description = "Поиск книг по названию")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String title) {
-        return ResponseEntity.ok(bookService.searchBooks(title));
+    @Operation(summary = "Поиск книг", description = "Полнотекстовый поиск по названию, описанию, авторам, жанрам и издательству с ранжированием по релевантности")
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam String title,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(bookService.searchBooks(title, limit));
     }
     
     @GetMapping("/publisher/{publisherId}")
@@ -63,10 +103,48 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Массовый импорт книг",
+               description = "Потоковый импорт из CSV (с заголовком) или NDJSON. В ответ по мере сохранения приходит " +
+                             "NDJSON с отчётом по каждой порции, последняя строка - итог (chunk = null)")
+    public ResponseEntity<StreamingResponseBody> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             HttpServletRequest request) throws IOException {
+        DataFormat format = DataFormat.ofContentType(contentType);
+        InputStream input = request.getInputStream();
+        StreamingResponseBody body = out -> {
+            ImportReport total = bookImportService.importBooks(input, format, report -> writeReport(report, out));
+            writeReport(total, out);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(DataFormat.NDJSON.getContentType()))
+                .body(body);
+    }
+    
+    private void writeReport(ImportReport report, OutputStream out) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(report));
+            out.write('\n');
+            // Клиент видит прогресс сразу после сохранения порции
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @PostMapping("/ratings/rebuild")
+    @Operation(summary = "Пересчитать рейтинги книг",
+               description = "Пересчитывает количество, сумму и распределение оценок всех книг по отзывам параллельными порциями")
+    public ResponseEntity<RatingRebuildReport> rebuildRatings() {
+        return ResponseEntity.ok(bookRatingService.rebuild());
+    }
+    
     @PutMapping("/{id}")
-    @Operation(summary = "Обновить книгу", description = "Обновляет существующую книгу")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
-        return ResponseEntity.ok(bookService.updateBook(id, book));
+    @Operation(summary = "Обновить книгу",
+               description = "Обновляет существующую книгу. С заголовком If-Match (ETag из GET /api/books/{id}) " +
+                             "изменение устаревшей версии отклоняется ответом 412")
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch) {
+        return ResponseEntity.ok(bookService.updateBook(id, book, ifMatch == null ? List.of() : ifMatch));
     }
     
     @DeleteMapping("/{id}")
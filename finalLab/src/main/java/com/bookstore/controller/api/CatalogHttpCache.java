@@ -0,0 +1,66 @@
+package com.bookstore.controller.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Условные GET для API каталога. ETag считается до загрузки данных: при совпадении с If-None-Match
+// ответ 304 уходит без чтения и сериализации данных. ETag и данные читаются в одной транзакции
+// (и с одной реплики), иначе под новым ETag мог бы закэшироваться старый ответ.
+// API каталога доступно только с токеном: ответы кэширует лишь клиент (private), а Vary: Authorization
+// не даёт отдать сохранённый ответ запросу с другим токеном
+@Component
+class CatalogHttpCache {
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    private final CacheControl cacheControl;
+    
+    CatalogHttpCache(PlatformTransactionManager transactionManager,
+                     @Value("${bookstore.http.catalog.max-age-seconds:60}") long maxAgeSeconds) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate();
+    }
+    
+    <T> ResponseEntity<T> get(HttpHeaders request, Supplier<String> eTag, Supplier<T> body) {
+        return readOnlyTransaction.execute(status -> {
+            String tag = eTag.get();
+            if (tag == null) {
+                return ResponseEntity.ok().body(body.get());
+            }
+            if (matches(request, tag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.AUTHORIZATION).build();
+            }
+            return ResponseEntity.ok().eTag(tag).cacheControl(cacheControl).varyBy(HttpHeaders.AUTHORIZATION)
+                    .body(body.get());
+        });
+    }
+    
+    private static boolean matches(HttpHeaders request, String tag) {
+        List<String> ifNoneMatch;
+        try {
+            ifNoneMatch = request.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch) {
+            // Для If-None-Match сравнение слабое: сжатый ответ Tomcat отдаёт с ETag W/"..."
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals("*") || value.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
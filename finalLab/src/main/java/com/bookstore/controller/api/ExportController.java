@@ -0,0 +1,69 @@
+package com.bookstore.controller.api;
+
+import com.bookstore.service.DataFormat;
+import com.bookstore.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+@Tag(name = "Export", description = "Потоковая выгрузка данных в NDJSON/CSV")
+public class ExportController {
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @GetMapping("/orders")
+    @Operation(summary = "Выгрузить заказы",
+               description = "Одна строка на позицию заказа; afterId - последний полностью полученный ID заказа")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") long afterId) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("orders", exportFormat, out -> exportService.exportOrders(afterId, exportFormat, out));
+    }
+    
+    @GetMapping("/books")
+    @Operation(summary = "Выгрузить книги", description = "Книги с ID больше afterId в порядке возрастания ID")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") long afterId) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("books", exportFormat, out -> exportService.exportBooks(afterId, exportFormat, out));
+    }
+    
+    @GetMapping("/warehouse")
+    @Operation(summary = "Выгрузить складские остатки", description = "Записи склада с ID больше afterId в порядке возрастания ID")
+    public ResponseEntity<StreamingResponseBody> exportWarehouse(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") long afterId) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("warehouse", exportFormat, out -> exportService.exportWarehouse(afterId, exportFormat, out));
+    }
+    
+    @GetMapping("/reviews")
+    @Operation(summary = "Выгрузить отзывы", description = "Отзывы с ID больше afterId в порядке возрастания ID")
+    public ResponseEntity<StreamingResponseBody> exportReviews(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") long afterId) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("reviews", exportFormat, out -> exportService.exportReviews(afterId, exportFormat, out));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> stream(String name, DataFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
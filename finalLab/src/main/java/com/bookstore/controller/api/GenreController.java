@@ -1,11 +1,13 @@
 package com.bookstore.controller.api;
 
 import com.bookstore.model.Genre;
+import com.bookstore.service.CatalogVersionService;
 import com.bookstore.service.GenreService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,10 +22,16 @@ public class GenreController {
     @Autowired
     private GenreService genreService;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogHttpCache catalogHttpCache;
+    
     @GetMapping
     @Operation(summary = "Получить все жанры", description = "Возвращает список всех жанров")
-    public ResponseEntity<List<Genre>> getAllGenres() {
-        return ResponseEntity.ok(genreService.getAllGenres());
+    public ResponseEntity<List<Genre>> getAllGenres(@RequestHeader HttpHeaders headers) {
+        return catalogHttpCache.get(headers, catalogVersionService::getGenresETag, genreService::getAllGenres);
     }
     
     @GetMapping("/{id}")
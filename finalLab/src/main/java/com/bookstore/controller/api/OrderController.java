@@ -1,13 +1,17 @@
 package com.bookstore.controller.api;
 
+import com.bookstore.dto.OrderSummaryDto;
 import com.bookstore.model.Order;
 import com.bookstore.service.OrderService;
+import com.bookstore.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,16 +24,38 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private UserService userService;
+    
     @GetMapping
     @Operation(summary = "Получить все заказы", description = "Возвращает список всех заказов")
     public ResponseEntity<List<Order>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Получить страницу истории заказов", description = "Возвращает страницу кратких строк заказов с фильтром по пользователю и статусу; покупатель видит только свои заказы")
+    public ResponseEntity<Page<OrderSummaryDto>> getOrdersPage(@RequestParam(required = false) Long userId,
+                                                               @RequestParam(required = false) String status,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size,
+                                                               @RequestParam(defaultValue = "date") String sort,
+                                                               @RequestParam(defaultValue = "desc") String dir,
+                                                               Authentication authentication) {
+        boolean isStaff = authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_MANAGER"));
+        if (!isStaff) {
+            // Покупателю - только его заказы, параметр userId игнорируется. Имя берётся из subject токена
+            userId = userService.getUserByUsername(authentication.getName()).getId();
+        }
+        Order.OrderStatus orderStatus = status == null ? null : Order.OrderStatus.valueOf(status.toUpperCase());
+        return ResponseEntity.ok(orderService.getOrderSummaries(userId, orderStatus, page, size, sort, dir));
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Получить заказ по ID", description = "Возвращает заказ по указанному ID")
+    @Operation(summary = "Получить заказ по ID", description = "Возвращает заказ с позициями по указанному ID")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        return ResponseEntity.ok(orderService.getOrderDetails(id));
     }
     
     @GetMapping("/user/{userId}")
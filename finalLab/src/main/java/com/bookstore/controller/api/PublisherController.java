@@ -1,11 +1,13 @@
 package com.bookstore.controller.api;
 
 import com.bookstore.model.Publisher;
+import com.bookstore.service.CatalogVersionService;
 import com.bookstore.service.PublisherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,10 +22,16 @@ public class PublisherController {
     @Autowired
     private PublisherService publisherService;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogHttpCache catalogHttpCache;
+    
     @GetMapping
     @Operation(summary = "Получить все издательства", description = "Возвращает список всех издательств")
-    public ResponseEntity<List<Publisher>> getAllPublishers() {
-        return ResponseEntity.ok(publisherService.getAllPublishers());
+    public ResponseEntity<List<Publisher>> getAllPublishers(@RequestHeader HttpHeaders headers) {
+        return catalogHttpCache.get(headers, catalogVersionService::getPublishersETag, publisherService::getAllPublishers);
     }
     
     @GetMapping("/{id}")
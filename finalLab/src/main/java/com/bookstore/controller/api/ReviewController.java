@@ -1,5 +1,7 @@
 package com.bookstore.controller.api;
 
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.ReviewDto;
 import com.bookstore.model.Review;
 import com.bookstore.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,9 +35,14 @@ public class ReviewController {
     }
     
     @GetMapping("/book/{bookId}")
-    @Operation(summary = "Получить отзывы книги", description = "Возвращает все отзывы указанной книги")
-    public ResponseEntity<List<Review>> getReviewsByBook(@PathVariable Long bookId) {
-        return ResponseEntity.ok(reviewService.getReviewsByBook(bookId));
+    @Operation(summary = "Получить отзывы книги",
+               description = "Возвращает страницу отзывов книги от новых к старым (keyset-пагинация по курсору), " +
+                             "при указании rating - только отзывы с этой оценкой")
+    public ResponseEntity<CursorPage<ReviewDto>> getReviewsByBook(@PathVariable Long bookId,
+                                                                  @RequestParam(required = false) Integer rating,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reviewService.getReviewsByBook(bookId, rating, cursor, size));
     }
     
     @GetMapping("/user/{userId}")
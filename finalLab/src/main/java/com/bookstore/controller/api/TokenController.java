@@ -0,0 +1,55 @@
+package com.bookstore.controller.api;
+
+import com.bookstore.dto.TokenRequest;
+import com.bookstore.dto.TokenResponse;
+import com.bookstore.exception.ValidationException;
+import com.bookstore.security.ApiTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth")
+@Tag(name = "Auth", description = "Токены доступа к API")
+public class TokenController {
+    
+    @Autowired
+    private AuthenticationManager authenticationManager;
+    
+    @Autowired
+    private ApiTokenService apiTokenService;
+    
+    @PostMapping("/token")
+    @Operation(summary = "Получить токен",
+               description = "Проверяет имя пользователя и пароль и возвращает токен для заголовка Authorization: Bearer")
+    public ResponseEntity<TokenResponse> issueToken(@Valid @RequestBody TokenRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        return ResponseEntity.ok(apiTokenService.issue(authentication));
+    }
+    
+    @PostMapping("/revoke")
+    @Operation(summary = "Отозвать токен", description = "Отзывает токен, с которым выполнен запрос")
+    public ResponseEntity<Void> revokeToken(@AuthenticationPrincipal Jwt jwt) {
+        if (jwt == null) {
+            throw new ValidationException("Запрос выполнен без токена");
+        }
+        apiTokenService.revoke(jwt);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/users/{username}/revoke")
+    @Operation(summary = "Отозвать токены пользователя", description = "Отзывает все выданные пользователю токены")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable String username) {
+        apiTokenService.revokeAll(username);
+        return ResponseEntity.noContent().build();
+    }
+}
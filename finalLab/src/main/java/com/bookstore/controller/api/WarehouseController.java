@@ -1,6 +1,8 @@
 package com.bookstore.controller.api;
 
+import com.bookstore.dto.StockLevelDto;
 import com.bookstore.model.Warehouse;
+import com.bookstore.service.LowStockMonitor;
 import com.bookstore.service.WarehouseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,6 +22,9 @@ public class WarehouseController {
     @Autowired
     private WarehouseService warehouseService;
     
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+    
     @GetMapping
     @Operation(summary = "Получить все записи склада", description = "Возвращает список всех записей склада")
     public ResponseEntity<List<Warehouse>> getAllWarehouses() {
@@ -44,6 +49,12 @@ public class WarehouseController {
         return ResponseEntity.ok(warehouseService.getLowStockItems(threshold));
     }
     
+    @GetMapping("/restock")
+    @Operation(summary = "Получить позиции для пополнения", description = "Возвращает позиции с остатком не выше собственного минимального порога (плюс margin), начиная с наибольшей нехватки")
+    public ResponseEntity<List<StockLevelDto>> getRestockItems(@RequestParam(defaultValue = "0") int margin) {
+        return ResponseEntity.ok(lowStockMonitor.getLowStock(margin));
+    }
+    
     @PostMapping
     @Operation(summary = "Создать запись склада", description = "Создает новую запись склада")
     public ResponseEntity<Warehouse> createWarehouse(@Valid @RequestBody Warehouse warehouse) {
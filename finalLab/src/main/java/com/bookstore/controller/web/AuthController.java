@@ -1,9 +1,13 @@
 package com.bookstore.controller.web;
 
 import com.bookstore.dto.UserRegistrationDto;
+import com.bookstore.security.PasswordHashingRejectedException;
 import com.bookstore.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -30,7 +34,7 @@ public class AuthController {
     
     @PostMapping("/register")
     public String register(@Valid @ModelAttribute("user") UserRegistrationDto registrationDto,
-                          BindingResult result, Model model) {
+                          BindingResult result, Model model, HttpServletResponse response) {
         if (result.hasErrors()) {
             return "register";
         }
@@ -38,6 +42,12 @@ public class AuthController {
         try {
             userService.registerUser(registrationDto);
             return "redirect:/login?success=true";
+        } catch (PasswordHashingRejectedException e) {
+            // Форма с введёнными данными показывается снова, но со статусом 429
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            model.addAttribute("error", e.getMessage());
+            return "register";
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
             return "register";
@@ -1,29 +1,40 @@
 package com.bookstore.controller.web;
 
-import com.bookstore.model.Author;
 import com.bookstore.model.Book;
-import com.bookstore.model.Genre;
 import com.bookstore.model.Publisher;
 import com.bookstore.service.AuthorService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogDataVersion;
+import com.bookstore.service.CatalogVersionService;
 import com.bookstore.service.GenreService;
 import com.bookstore.service.PublisherService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @Controller
 @RequestMapping("/web/books")
 public class BookWebController {
     
+    // В кэш фрагментов попадают только первые страницы каталога с размерами из формы фильтра
+    private static final int CACHED_PAGES = 10;
+    
+    private static final Set<Integer> CACHED_PAGE_SIZES = Set.of(10, 20, 50, 100);
+    
     @Autowired
     private BookService bookService;
     
@@ -36,11 +47,72 @@ public class BookWebController {
     @Autowired
     private GenreService genreService;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Autowired
+    private FragmentCache fragmentCache;
+    
     @GetMapping
-    public String listBooks(Model model, Authentication authentication) {
-        List<Book> books = bookService.getAllBooks();
-        model.addAttribute("books", books);
+    public String listBooks(@RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "20") int size,
+                            @RequestParam(defaultValue = "title") String sort,
+                            @RequestParam(defaultValue = "asc") String dir,
+                            @RequestParam(required = false) Long genreId,
+                            @RequestParam(required = false) Long authorId,
+                            @RequestParam(required = false) Long publisherId,
+                            @RequestParam(required = false) BigDecimal minPrice,
+                            @RequestParam(required = false) BigDecimal maxPrice,
+                            Model model, Authentication authentication,
+                            HttpServletRequest request, HttpServletResponse response) {
         setRoleAttributes(model, authentication);
+        String sortKey = BookService.sortKey(sort);
+        String direction = "desc".equalsIgnoreCase(dir) ? "desc" : "asc";
+        int pageSize = BookService.pageSize(size);
+        int pageNumber = BookService.pageNumber(page);
+        
+        // Параметры фильтра без номера страницы: для ссылок постраничной навигации и ключа кэша
+        String filterQuery = UriComponentsBuilder.newInstance()
+                .queryParam("size", pageSize)
+                .queryParam("sort", sortKey)
+                .queryParam("dir", direction)
+                .queryParamIfPresent("genreId", Optional.ofNullable(genreId))
+                .queryParamIfPresent("authorId", Optional.ofNullable(authorId))
+                .queryParamIfPresent("publisherId", Optional.ofNullable(publisherId))
+                .queryParamIfPresent("minPrice", Optional.ofNullable(minPrice))
+                .queryParamIfPresent("maxPrice", Optional.ofNullable(maxPrice))
+                .build().getQuery();
+        
+        // Таблица отличается только для администратора, поэтому в кэше два варианта каждой страницы.
+        // Ключ строится из уже ограниченных значений; произвольные цены, размеры и дальние страницы
+        // рендерятся без кэша, иначе перебор параметров вытеснял бы из него популярные страницы
+        boolean isAdmin = (boolean) model.getAttribute("isAdmin");
+        boolean cacheable = minPrice == null && maxPrice == null
+                && pageNumber < CACHED_PAGES && CACHED_PAGE_SIZES.contains(pageSize);
+        String variant = (isAdmin ? "admin" : "public") + "?" + filterQuery + "&page=" + pageNumber;
+        model.addAttribute("catalogGrid", fragmentCache.render("grid", variant,
+                () -> cacheable ? catalogDataVersion.current() : null,
+                () -> Map.of("books", bookService.getBookSummaries(genreId, authorId, publisherId, minPrice, maxPrice,
+                                pageNumber, pageSize, sortKey, direction),
+                        "isAdmin", isAdmin,
+                        "filterQuery", filterQuery),
+                request, response));
+        
+        // Форма фильтра: справочники берутся из Spring Cache
+        model.addAttribute("genres", genreService.getAllGenres());
+        model.addAttribute("authors", authorService.getAllAuthors());
+        model.addAttribute("publishers", publisherService.getAllPublishers());
+        model.addAttribute("size", pageSize);
+        model.addAttribute("sort", sortKey);
+        model.addAttribute("dir", direction);
+        model.addAttribute("genreId", genreId);
+        model.addAttribute("authorId", authorId);
+        model.addAttribute("publisherId", publisherId);
+        model.addAttribute("minPrice", minPrice);
+        model.addAttribute("maxPrice", maxPrice);
         return "books/list";
     }
     
@@ -66,18 +138,10 @@ public class BookWebController {
                 book.setPublisher(publisherService.getPublisherById(publisherId));
             }
             if (authorIds != null && !authorIds.isEmpty()) {
-                Set<Author> authors = new HashSet<>();
-                for (Long id : authorIds) {
-                    authors.add(authorService.getAuthorById(id));
-                }
-                book.setAuthors(authors);
+                book.setAuthors(new HashSet<>(authorService.getAuthorsByIds(authorIds)));
             }
             if (genreIds != null && !genreIds.isEmpty()) {
-                Set<Genre> genres = new HashSet<>();
-                for (Long id : genreIds) {
-                    genres.add(genreService.getGenreById(id));
-                }
-                book.setGenres(genres);
+                book.setGenres(new HashSet<>(genreService.getGenresByIds(genreIds)));
             }
             bookService.createBook(book);
             redirectAttributes.addFlashAttribute("success", "Книга успешно создана!");
@@ -89,7 +153,7 @@ public class BookWebController {
     
     @GetMapping("/{id}/edit")
     public String showEditForm(@PathVariable Long id, Model model, Authentication authentication) {
-        Book book = bookService.getBookById(id);
+        Book book = bookService.getBookDetails(id);
         model.addAttribute("book", book);
         model.addAttribute("authors", authorService.getAllAuthors());
         model.addAttribute("publishers", publisherService.getAllPublishers());
@@ -110,18 +174,10 @@ public class BookWebController {
                 book.setPublisher(publisherService.getPublisherById(publisherId));
             }
             if (authorIds != null && !authorIds.isEmpty()) {
-                Set<Author> authors = new HashSet<>();
-                for (Long authorId : authorIds) {
-                    authors.add(authorService.getAuthorById(authorId));
-                }
-                book.setAuthors(authors);
+                book.setAuthors(new HashSet<>(authorService.getAuthorsByIds(authorIds)));
             }
             if (genreIds != null && !genreIds.isEmpty()) {
-                Set<Genre> genres = new HashSet<>();
-                for (Long genreId : genreIds) {
-                    genres.add(genreService.getGenreById(genreId));
-                }
-                book.setGenres(genres);
+                book.setGenres(new HashSet<>(genreService.getGenresByIds(genreIds)));
             }
             bookService.updateBook(id, book);
             redirectAttributes.addFlashAttribute("success", "Книга успешно обновлена!");
@@ -132,9 +188,12 @@ public class BookWebController {
     }
     
     @GetMapping("/{id}")
-    public String viewBook(@PathVariable Long id, Model model, Authentication authentication) {
-        Book book = bookService.getBookById(id);
-        model.addAttribute("book", book);
+    public String viewBook(@PathVariable Long id, Model model, Authentication authentication,
+                           HttpServletRequest request, HttpServletResponse response) {
+        model.addAttribute("bookCard", fragmentCache.render("book-card", String.valueOf(id),
+                () -> catalogVersionService.getBookETag(id),
+                () -> Map.of("book", bookService.getBookDetails(id)),
+                request, response));
         setRoleAttributes(model, authentication);
         return "books/view";
     }
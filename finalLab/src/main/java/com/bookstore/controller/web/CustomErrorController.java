@@ -30,6 +30,14 @@ public class CustomErrorController implements ErrorController {
                 model.addAttribute("status", "403");
                 model.addAttribute("error", "Forbidden");
                 model.addAttribute("message", "Доступ запрещен");
+            } else if (statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                model.addAttribute("status", "429");
+                model.addAttribute("error", "Too Many Requests");
+                model.addAttribute("message", "Сервер перегружен, повторите попытку позже");
+            } else if (statusCode == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                model.addAttribute("status", "503");
+                model.addAttribute("error", "Service Unavailable");
+                model.addAttribute("message", "Сервер перегружен, повторите попытку позже");
             } else {
                 model.addAttribute("status", statusCode);
                 model.addAttribute("error", "Error");
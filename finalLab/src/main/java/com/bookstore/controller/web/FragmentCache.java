@@ -0,0 +1,72 @@
+package com.bookstore.controller.web;
+
+import com.bookstore.config.CacheConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Кэш отрендеренных фрагментов каталога (templates/fragments/catalog.html). Ключ - фрагмент, вариант разметки
+// и версия данных: после изменения данных версия другая, и старая запись просто вытесняется.
+// Версия и данные читаются в одной транзакции, чтобы под новой версией не оказалась старая разметка
+@Component
+class FragmentCache {
+    
+    private static final String TEMPLATE = "fragments/catalog";
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    private final Cache cache;
+    
+    private final ITemplateEngine templateEngine;
+    
+    FragmentCache(PlatformTransactionManager transactionManager, CacheManager cacheManager,
+                  ITemplateEngine templateEngine) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = cacheManager.getCache(CacheConfig.FRAGMENTS);
+        this.templateEngine = templateEngine;
+    }
+    
+    // Если версии нет (книга не найдена или вариант не кэшируется), фрагмент рендерится без кэша:
+    // исключение из загрузки данных дойдёт до обработчика ошибок как обычно
+    String render(String fragment, String variant, Supplier<String> version,
+                  Supplier<Map<String, Object>> variables,
+                  HttpServletRequest request, HttpServletResponse response) {
+        return readOnlyTransaction.execute(status -> {
+            String currentVersion = version.get();
+            if (currentVersion == null) {
+                return process(fragment, variables.get(), request, response);
+            }
+            String key = fragment + ":" + variant + ":" + currentVersion;
+            try {
+                return cache.get(key, () -> process(fragment, variables.get(), request, response));
+            } catch (Cache.ValueRetrievalException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        });
+    }
+    
+    private String process(String fragment, Map<String, Object> variables,
+                           HttpServletRequest request, HttpServletResponse response) {
+        WebContext context = new WebContext(
+                JakartaServletWebApplication.buildApplication(request.getServletContext())
+                        .buildExchange(request, response),
+                LocaleContextHolder.getLocale(), variables);
+        return templateEngine.process(TEMPLATE, Set.of(fragment), context);
+    }
+}
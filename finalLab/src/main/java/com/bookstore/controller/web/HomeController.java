@@ -1,9 +1,8 @@
 package com.bookstore.controller.web;
 
-import com.bookstore.model.Book;
-import com.bookstore.service.BookService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.bookstore.service.PopularBooksService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,16 +11,16 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Controller
 public class HomeController {
     
-    private static final Logger logger = LoggerFactory.getLogger(HomeController.class);
+    @Autowired
+    private PopularBooksService popularBooksService;
     
     @Autowired
-    private BookService bookService;
+    private FragmentCache fragmentCache;
     
     @GetMapping("/")
     public String index(Authentication authentication) {
@@ -34,7 +33,8 @@ public class HomeController {
     }
     
     @GetMapping("/home")
-    public String home(Authentication authentication, Model model) {
+    public String home(Authentication authentication, Model model,
+                       HttpServletRequest request, HttpServletResponse response) {
         if (authentication != null && authentication.isAuthenticated()) {
             Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
             boolean isAdmin = authorities.stream()
@@ -54,23 +54,12 @@ public class HomeController {
             model.addAttribute("isUser", false);
         }
         
-        // Загружаем популярные книги (первые 6 книг)
-        // Обрабатываем ошибки, чтобы страница загружалась даже если БД пустая или есть проблемы
-        try {
-            List<Book> allBooks = bookService.getAllBooks();
-            if (allBooks != null && !allBooks.isEmpty()) {
-                List<Book> popularBooks = allBooks.stream()
-                        .limit(6)
-                        .collect(Collectors.toList());
-                model.addAttribute("popularBooks", popularBooks);
-            } else {
-                model.addAttribute("popularBooks", List.of());
-            }
-        } catch (Exception e) {
-            // Если произошла ошибка при загрузке книг, просто показываем пустой список
-            logger.error("Ошибка при загрузке книг для главной страницы", e);
-            model.addAttribute("popularBooks", List.of());
-        }
+        // Популярные книги берутся из снимка в памяти, который обновляется в фоне;
+        // блок перерисовывается только после замены снимка
+        model.addAttribute("popularBlock", fragmentCache.render("popular", "public",
+                () -> String.valueOf(popularBooksService.getSnapshotVersion()),
+                () -> Map.of("popularBooks", popularBooksService.getPopularBooks()),
+                request, response));
         
         return "home";
     }
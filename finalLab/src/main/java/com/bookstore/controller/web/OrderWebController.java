@@ -8,11 +8,13 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Controller
@@ -29,25 +31,57 @@ public class OrderWebController {
     private BookService bookService;
     
     @GetMapping
-    public String listOrders(Model model, Authentication authentication) {
-        List<Order> orders;
+    public String listOrders(@RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "20") int size,
+                             @RequestParam(defaultValue = "date") String sort,
+                             @RequestParam(defaultValue = "desc") String dir,
+                             @RequestParam(required = false) String status,
+                             @RequestParam(required = false) Long userId,
+                             Model model, Authentication authentication) {
         boolean isOnlyUser = authentication != null && 
                             authentication.getAuthorities().stream()
                                 .allMatch(a -> a.getAuthority().equals("ROLE_USER"));
         
         if (isOnlyUser) {
             // Для обычных пользователей показываем только их заказы
-            User currentUser = userService.getUserByUsername(authentication.getName());
-            orders = orderService.getOrdersByUser(currentUser.getId());
-        } else {
-            // Для админов и менеджеров показываем все заказы
-            orders = orderService.getAllOrders();
+            userId = userService.getUserByUsername(authentication.getName()).getId();
         }
-        model.addAttribute("orders", orders);
+        // Админы и менеджеры видят все заказы или заказы выбранного пользователя
+        Order.OrderStatus orderStatus = parseStatus(status);
+        String sortKey = OrderService.sortKey(sort);
+        String direction = "asc".equalsIgnoreCase(dir) ? "asc" : "desc";
+        
+        // Параметры фильтра без номера страницы - для ссылок постраничной навигации
+        String filterQuery = UriComponentsBuilder.newInstance()
+                .queryParam("size", size)
+                .queryParam("sort", sortKey)
+                .queryParam("dir", direction)
+                .queryParamIfPresent("status", Optional.ofNullable(orderStatus))
+                .queryParamIfPresent("userId", Optional.ofNullable(isOnlyUser ? null : userId))
+                .build().getQuery();
+        
+        model.addAttribute("orders", orderService.getOrderSummaries(userId, orderStatus, page, size, sortKey, direction));
+        model.addAttribute("statuses", Order.OrderStatus.values());
+        model.addAttribute("selectedStatus", orderStatus);
+        model.addAttribute("sort", sortKey);
+        model.addAttribute("dir", direction);
+        model.addAttribute("size", size);
+        model.addAttribute("filterQuery", filterQuery);
         setRoleAttributes(model, authentication);
         return "orders/list";
     }
     
+    private Order.OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     @GetMapping("/new")
     public String showCreateForm(Model model, Authentication authentication) {
         Order order = new Order();
@@ -106,11 +140,12 @@ public class OrderWebController {
                     Long bookId = bookIds.get(i);
                     Integer quantity = quantities.get(i);
                     if (bookId != null && quantity != null && quantity > 0) {
-                        Book book = bookService.getBookById(bookId);
+                        // Книги и цены позиций загружает OrderService одним запросом на весь заказ
+                        Book book = new Book();
+                        book.setId(bookId);
                         OrderItem item = new OrderItem();
                         item.setBook(book);
                         item.setQuantity(quantity);
-                        item.setPrice(book.getPrice());
                         item.setOrder(order);
                         orderItems.add(item);
                     }
@@ -129,7 +164,7 @@ public class OrderWebController {
     
     @GetMapping("/{id}")
     public String viewOrder(@PathVariable Long id, Model model, Authentication authentication) {
-        Order order = orderService.getOrderById(id);
+        Order order = orderService.getOrderDetails(id);
         model.addAttribute("order", order);
         setRoleAttributes(model, authentication);
         return "orders/view";
@@ -0,0 +1,40 @@
+package com.bookstore.dto;
+
+// Агрегированная активность по книге за период: число записей и сумма (проданных экземпляров или оценок)
+public class BookActivityDto {
+    private Long bookId;
+    private Long count;
+    private Long total;
+    
+    public BookActivityDto() {}
+    
+    public BookActivityDto(Long bookId, Long count, Long total) {
+        this.bookId = bookId;
+        this.count = count;
+        this.total = total;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+    
+    public Long getCount() {
+        return count;
+    }
+    
+    public void setCount(Long count) {
+        this.count = count;
+    }
+    
+    public Long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
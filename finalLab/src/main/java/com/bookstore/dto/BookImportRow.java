@@ -0,0 +1,101 @@
+package com.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Строка импорта каталога (CSV с заголовком или NDJSON). Числа читаются как строки,
+// чтобы ошибка формата попадала в отчёт по строке, а не прерывала весь импорт.
+// Авторы ("Имя Фамилия") и жанры в CSV разделяются точкой с запятой.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookImportRow {
+    private String title;
+    private String isbn;
+    private String price;
+    private String pages;
+    private String publicationYear;
+    private String description;
+    private String publisher;
+    
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+    private List<String> authors = new ArrayList<>();
+    
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+    private List<String> genres = new ArrayList<>();
+    
+    public BookImportRow() {}
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public String getPrice() {
+        return price;
+    }
+    
+    public void setPrice(String price) {
+        this.price = price;
+    }
+    
+    public String getPages() {
+        return pages;
+    }
+    
+    public void setPages(String pages) {
+        this.pages = pages;
+    }
+    
+    public String getPublicationYear() {
+        return publicationYear;
+    }
+    
+    public void setPublicationYear(String publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getPublisher() {
+        return publisher;
+    }
+    
+    public void setPublisher(String publisher) {
+        this.publisher = publisher;
+    }
+    
+    public List<String> getAuthors() {
+        return authors;
+    }
+    
+    public void setAuthors(List<String> authors) {
+        this.authors = authors;
+    }
+    
+    public List<String> getGenres() {
+        return genres;
+    }
+    
+    public void setGenres(List<String> genres) {
+        this.genres = genres;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bookstore.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookSummaryDto {
+    private Long id;
+    private String title;
+    private String isbn;
+    private BigDecimal price;
+    private Integer publicationYear;
+    private String publisherName;
+    private Integer ratingCount;
+    private Double averageRating;
+    private List<String> authorNames = new ArrayList<>();
+    
+    public BookSummaryDto() {}
+    
+    public BookSummaryDto(Long id, String title, String isbn, BigDecimal price,
+                          Integer publicationYear, String publisherName,
+                          Integer ratingCount, Integer ratingSum) {
+        this.id = id;
+        this.title = title;
+        this.isbn = isbn;
+        this.price = price;
+        this.publicationYear = publicationYear;
+        this.publisherName = publisherName;
+        this.ratingCount = ratingCount;
+        this.averageRating = ratingCount == null || ratingCount == 0 ? null : (double) ratingSum / ratingCount;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+    
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+    
+    public String getPublisherName() {
+        return publisherName;
+    }
+    
+    public void setPublisherName(String publisherName) {
+        this.publisherName = publisherName;
+    }
+    
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+    
+    public void setRatingCount(Integer ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+    
+    public Double getAverageRating() {
+        return averageRating;
+    }
+    
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+    
+    public List<String> getAuthorNames() {
+        return authorNames;
+    }
+    
+    public void setAuthorNames(List<String> authorNames) {
+        this.authorNames = authorNames;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookstore.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Отчёт по порции импорта; итоговый отчёт по всему файлу имеет chunk = null
+public class ImportReport {
+    private Integer chunk;
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors = new ArrayList<>();
+    
+    public ImportReport() {}
+    
+    public ImportReport(Integer chunk) {
+        this.chunk = chunk;
+    }
+    
+    public void add(ImportReport other) {
+        processed += other.processed;
+        imported += other.imported;
+        failed += other.failed;
+    }
+    
+    public Integer getChunk() {
+        return chunk;
+    }
+    
+    public void setChunk(Integer chunk) {
+        this.chunk = chunk;
+    }
+    
+    public long getProcessed() {
+        return processed;
+    }
+    
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public List<ImportRowError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<ImportRowError> errors) {
+        this.errors = errors;
+    }
+}
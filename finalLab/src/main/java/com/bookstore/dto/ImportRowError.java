@@ -0,0 +1,39 @@
+package com.bookstore.dto;
+
+public class ImportRowError {
+    private long record;
+    private String isbn;
+    private String message;
+    
+    public ImportRowError() {}
+    
+    public ImportRowError(long record, String isbn, String message) {
+        this.record = record;
+        this.isbn = isbn;
+        this.message = message;
+    }
+    
+    public long getRecord() {
+        return record;
+    }
+    
+    public void setRecord(long record) {
+        this.record = record;
+    }
+    
+    public String getIsbn() {
+        return isbn;
+    }
+    
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
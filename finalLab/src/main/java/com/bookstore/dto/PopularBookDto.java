@@ -0,0 +1,83 @@
+package com.bookstore.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PopularBookDto {
+    private Long id;
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private List<String> authorNames;
+    private List<String> genreNames;
+    private double score;
+    
+    public PopularBookDto() {}
+    
+    public PopularBookDto(Long id, String title, String description, BigDecimal price,
+                          List<String> authorNames, List<String> genreNames, double score) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.authorNames = authorNames;
+        this.genreNames = genreNames;
+        this.score = score;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public List<String> getAuthorNames() {
+        return authorNames;
+    }
+    
+    public void setAuthorNames(List<String> authorNames) {
+        this.authorNames = authorNames;
+    }
+    
+    public List<String> getGenreNames() {
+        return genreNames;
+    }
+    
+    public void setGenreNames(List<String> genreNames) {
+        this.genreNames = genreNames;
+    }
+    
+    public double getScore() {
+        return score;
+    }
+    
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
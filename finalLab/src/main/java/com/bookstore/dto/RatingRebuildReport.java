@@ -0,0 +1,39 @@
+package com.bookstore.dto;
+
+public class RatingRebuildReport {
+    private int chunks;
+    private long books;
+    private long durationMs;
+    
+    public RatingRebuildReport() {}
+    
+    public RatingRebuildReport(int chunks, long books, long durationMs) {
+        this.chunks = chunks;
+        this.books = books;
+        this.durationMs = durationMs;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+    
+    public long getBooks() {
+        return books;
+    }
+    
+    public void setBooks(long books) {
+        this.books = books;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
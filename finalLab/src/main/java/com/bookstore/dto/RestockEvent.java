@@ -0,0 +1,36 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+
+// Переход позиции склада через её минимальный порог
+public class RestockEvent {
+    
+    public enum Type {
+        // Остаток опустился до порога или ниже - нужна поставка
+        LOW,
+        // Остаток снова выше порога
+        RESTOCKED
+    }
+    
+    private final Type type;
+    private final StockLevelDto level;
+    private final LocalDateTime occurredAt;
+    
+    public RestockEvent(Type type, StockLevelDto level) {
+        this.type = type;
+        this.level = level;
+        this.occurredAt = LocalDateTime.now();
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public StockLevelDto getLevel() {
+        return level;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
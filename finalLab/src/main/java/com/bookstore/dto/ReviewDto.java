@@ -0,0 +1,82 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+
+public class ReviewDto {
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private String username;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime reviewDate;
+    
+    public ReviewDto() {}
+    
+    public ReviewDto(Long id, Long bookId, Long userId, String username, Integer rating,
+                     String comment, LocalDateTime reviewDate) {
+        this.id = id;
+        this.bookId = bookId;
+        this.userId = userId;
+        this.username = username;
+        this.rating = rating;
+        this.comment = comment;
+        this.reviewDate = reviewDate;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public Integer getRating() {
+        return rating;
+    }
+    
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+    
+    public String getComment() {
+        return comment;
+    }
+    
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+    
+    public LocalDateTime getReviewDate() {
+        return reviewDate;
+    }
+    
+    public void setReviewDate(LocalDateTime reviewDate) {
+        this.reviewDate = reviewDate;
+    }
+}
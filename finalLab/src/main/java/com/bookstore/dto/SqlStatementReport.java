@@ -0,0 +1,80 @@
+package com.bookstore.dto;
+
+public class SqlStatementReport {
+    private String statement;
+    private long count;
+    private long totalMs;
+    private double avgMs;
+    private long maxMs;
+    private String slowestRoute;
+    private String slowestService;
+    
+    public SqlStatementReport() {}
+    
+    public SqlStatementReport(String statement, long count, long totalMs, long maxMs,
+                              String slowestRoute, String slowestService) {
+        this.statement = statement;
+        this.count = count;
+        this.totalMs = totalMs;
+        this.avgMs = count > 0 ? (double) totalMs / count : 0;
+        this.maxMs = maxMs;
+        this.slowestRoute = slowestRoute;
+        this.slowestService = slowestService;
+    }
+    
+    public String getStatement() {
+        return statement;
+    }
+    
+    public void setStatement(String statement) {
+        this.statement = statement;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public long getTotalMs() {
+        return totalMs;
+    }
+    
+    public void setTotalMs(long totalMs) {
+        this.totalMs = totalMs;
+    }
+    
+    public double getAvgMs() {
+        return avgMs;
+    }
+    
+    public void setAvgMs(double avgMs) {
+        this.avgMs = avgMs;
+    }
+    
+    public long getMaxMs() {
+        return maxMs;
+    }
+    
+    public void setMaxMs(long maxMs) {
+        this.maxMs = maxMs;
+    }
+    
+    public String getSlowestRoute() {
+        return slowestRoute;
+    }
+    
+    public void setSlowestRoute(String slowestRoute) {
+        this.slowestRoute = slowestRoute;
+    }
+    
+    public String getSlowestService() {
+        return slowestService;
+    }
+    
+    public void setSlowestService(String slowestService) {
+        this.slowestService = slowestService;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bookstore.dto;
+
+public class StockLevelDto {
+    private Long warehouseId;
+    private Long bookId;
+    private String title;
+    private Integer quantity;
+    private Integer minThreshold;
+    
+    public StockLevelDto() {}
+    
+    public StockLevelDto(Long warehouseId, Long bookId, String title, Integer quantity, Integer minThreshold) {
+        this.warehouseId = warehouseId;
+        this.bookId = bookId;
+        this.title = title;
+        this.quantity = quantity;
+        this.minThreshold = minThreshold;
+    }
+    
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+    
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public Integer getMinThreshold() {
+        return minThreshold;
+    }
+    
+    public void setMinThreshold(Integer minThreshold) {
+        this.minThreshold = minThreshold;
+    }
+    
+    // Сколько экземпляров не хватает до порога (0 - остаток ровно на пороге)
+    public int getShortage() {
+        return minThreshold - quantity;
+    }
+}
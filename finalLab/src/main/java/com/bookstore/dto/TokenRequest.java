@@ -0,0 +1,29 @@
+package com.bookstore.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class TokenRequest {
+    @NotBlank(message = "Имя пользователя обязательно")
+    private String username;
+    
+    @NotBlank(message = "Пароль обязателен")
+    private String password;
+    
+    public TokenRequest() {}
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookstore.dto;
+
+import java.time.Instant;
+
+public class TokenResponse {
+    private final String accessToken;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+    private final Instant expiresAt;
+    
+    public TokenResponse(String accessToken, Instant issuedAt, Instant expiresAt) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresAt.getEpochSecond() - issuedAt.getEpochSecond();
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getAccessToken() {
+        return accessToken;
+    }
+    
+    public String getTokenType() {
+        return tokenType;
+    }
+    
+    // Срок действия в секундах
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
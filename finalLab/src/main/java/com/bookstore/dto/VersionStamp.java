@@ -0,0 +1,42 @@
+package com.bookstore.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Отпечаток версии данных для ETag. Считается агрегатным запросом по версиям строк,
+// без загрузки и сериализации самих данных
+public class VersionStamp {
+    
+    private final List<Long> parts = new ArrayList<>();
+    
+    // Таблица целиком: вставка меняет число строк или максимальный id, удаление - число строк,
+    // изменение строки - сумму версий (версии только растут)
+    public VersionStamp(Long rows, Long maxId, Long versionSum) {
+        add(rows, maxId, versionSum);
+    }
+    
+    // Карточка книги: пока версия книги прежняя, не меняются её издательство и состав авторов и жанров,
+    // поэтому остальные части меняются только при изменении самих справочников
+    public VersionStamp(Long bookVersion, Long publisherVersion, Long authorsVersion, Long genresVersion) {
+        add(bookVersion, publisherVersion, authorsVersion, genresVersion);
+    }
+    
+    private void add(Long... values) {
+        for (Long value : values) {
+            parts.add(value == null ? 0L : value);
+        }
+    }
+    
+    public VersionStamp and(VersionStamp other) {
+        parts.addAll(other.parts);
+        return this;
+    }
+    
+    // Сильный ETag: "name-1-2-3"
+    public String toETag(String name) {
+        return parts.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "\"" + name + "-", "\""));
+    }
+}
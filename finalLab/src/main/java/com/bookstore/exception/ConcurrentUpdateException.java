@@ -0,0 +1,9 @@
+package com.bookstore.exception;
+
+// Операция не прошла из-за одновременных изменений тех же данных даже после повторов.
+// Запрос сам по себе корректен, его можно повторить позже
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,15 +1,19 @@
 package com.bookstore.model;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "authors")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "authors")
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Author {
     @Id
@@ -28,7 +32,13 @@ public class Author {
     
     private String biography;
     
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+    
     @ManyToMany(mappedBy = "authors")
+    @JsonIgnore
     private Set<Book> books = new HashSet<>();
     
     public Author() {}
@@ -46,6 +56,10 @@ public class Author {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getFirstName() {
         return firstName;
     }
@@ -1,6 +1,8 @@
 package com.bookstore.model;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -8,13 +10,19 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.StringJoiner;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    @Index(name = "idx_books_title_id", columnList = "title, id")
+})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Book {
+    // Последовательность с шагом 50: Hibernate выделяет id блоками и может вставлять книги пакетами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_id_seq")
+    @SequenceGenerator(name = "books_id_seq", sequenceName = "books_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Название книги обязательно")
@@ -44,11 +52,26 @@ public class Book {
     
     private String description;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Денормализованный текст для полнотекстового поиска (GIN-индексы в миграции V3)
+    @JsonIgnore
+    @Column(name = "search_text", columnDefinition = "text")
+    private String searchText;
+    
+    @Embedded
+    private BookRating rating = new BookRating();
+    
+    // Версия строки: защищает от потерянных обновлений и входит в ETag ответов API каталога.
+    // Растёт и при изменении рейтинга, состава авторов и жанров
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publisher_id", nullable = false)
     private Publisher publisher;
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "book_authors",
         joinColumns = @JoinColumn(name = "book_id"),
@@ -56,7 +79,7 @@ public class Book {
     )
     private Set<Author> authors = new HashSet<>();
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "book_genres",
         joinColumns = @JoinColumn(name = "book_id"),
@@ -65,13 +88,17 @@ public class Book {
     private Set<Genre> genres = new HashSet<>();
     
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @JsonIgnore
     private Set<OrderItem> orderItems = new HashSet<>();
     
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @JsonIgnore
     private Set<Review> reviews = new HashSet<>();
     
-    @OneToOne(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    private Warehouse warehouse;
+    @PrePersist
+    protected void onCreate() {
+        refreshSearchText();
+    }
     
     public Book() {}
     
@@ -91,6 +118,10 @@ public class Book {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getTitle() {
         return title;
     }
@@ -139,6 +170,10 @@ public class Book {
         this.description = description;
     }
     
+    public BookRating getRating() {
+        return rating;
+    }
+    
     public Publisher getPublisher() {
         return publisher;
     }
@@ -179,12 +214,29 @@ public class Book {
         this.reviews = reviews;
     }
     
-    public Warehouse getWarehouse() {
-        return warehouse;
-    }
-    
-    public void setWarehouse(Warehouse warehouse) {
-        this.warehouse = warehouse;
+    public String getSearchText() {
+        return searchText;
+    }
+    
+    // Пересобирает поисковый текст из названия, описания, авторов, жанров и издательства
+    public void refreshSearchText() {
+        StringJoiner text = new StringJoiner(" ");
+        if (title != null) {
+            text.add(title);
+        }
+        if (description != null) {
+            text.add(description);
+        }
+        if (authors != null) {
+            authors.forEach(author -> text.add(author.getFullName()));
+        }
+        if (genres != null) {
+            genres.forEach(genre -> text.add(genre.getName()));
+        }
+        if (publisher != null && publisher.getName() != null) {
+            text.add(publisher.getName());
+        }
+        this.searchText = text.toString().toLowerCase();
     }
 }
 
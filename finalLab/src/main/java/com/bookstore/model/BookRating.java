@@ -0,0 +1,57 @@
+package com.bookstore.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Агрегаты оценок книги. Hibernate их не записывает: значения меняются атомарными
+// UPDATE из BookRatingService, поэтому сохранение книги не затирает параллельные отзывы.
+@Embeddable
+public class BookRating {
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int count;
+    
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int sum;
+    
+    @Column(name = "rating_1", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int stars1;
+    
+    @Column(name = "rating_2", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int stars2;
+    
+    @Column(name = "rating_3", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int stars3;
+    
+    @Column(name = "rating_4", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int stars4;
+    
+    @Column(name = "rating_5", nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int stars5;
+    
+    public BookRating() {}
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getSum() {
+        return sum;
+    }
+    
+    public Double getAverage() {
+        return count == 0 ? null : (double) sum / count;
+    }
+    
+    // Число отзывов по каждой оценке от 1 до 5
+    public Map<Integer, Integer> getHistogram() {
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        histogram.put(1, stars1);
+        histogram.put(2, stars2);
+        histogram.put(3, stars3);
+        histogram.put(4, stars4);
+        histogram.put(5, stars5);
+        return histogram;
+    }
+}
@@ -1,15 +1,19 @@
 package com.bookstore.model;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "genres")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genres")
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Genre {
     @Id
@@ -23,7 +27,13 @@ public class Genre {
     
     private String description;
     
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+    
     @ManyToMany(mappedBy = "genres")
+    @JsonIgnore
     private Set<Book> books = new HashSet<>();
     
     public Genre() {}
@@ -40,6 +50,10 @@ public class Genre {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getName() {
         return name;
     }
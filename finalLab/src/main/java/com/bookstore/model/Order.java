@@ -18,7 +18,7 @@ public class Order {
     private Long id;
     
     @NotNull(message = "Пользователь обязателен")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
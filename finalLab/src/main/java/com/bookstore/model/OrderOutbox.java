@@ -0,0 +1,101 @@
+package com.bookstore.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Запись outbox: создаётся в одной транзакции с заказом и забирается фоновыми обработчиками
+@Entity
+@Table(name = "order_outbox")
+public class OrderOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long orderId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Раньше этого момента запись не выдаётся обработчикам (аренда или пауза перед повтором)
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    private LocalDateTime processedAt;
+    
+    @Column(length = 500)
+    private String lastError;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+    
+    public OrderOutbox() {}
+    
+    public OrderOutbox(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+    
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -1,16 +1,22 @@
 package com.bookstore.model;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "publishers")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "publishers")
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Publisher {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,7 +33,13 @@ public class Publisher {
     
     private String email;
     
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+    
     @OneToMany(mappedBy = "publisher", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private Set<Book> books = new HashSet<>();
     
     public Publisher() {}
@@ -44,6 +56,10 @@ public class Publisher {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getName() {
         return name;
     }
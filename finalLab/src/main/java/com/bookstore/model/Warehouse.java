@@ -15,7 +15,7 @@ public class Warehouse {
     private Long id;
     
     @NotNull(message = "Книга обязательна")
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false, unique = true)
     private Book book;
     
@@ -27,6 +27,11 @@ public class Warehouse {
     @Min(value = 0, message = "Минимальный порог не может быть отрицательным")
     private Integer minThreshold;
     
+    // Оптимистическая блокировка: списания при заказе тоже увеличивают версию
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     public Warehouse() {}
     
     public Warehouse(Book book, Integer quantity) {
@@ -66,6 +71,14 @@ public class Warehouse {
         this.minThreshold = minThreshold;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Boolean isLowStock() {
         return minThreshold != null && quantity <= minThreshold;
     }
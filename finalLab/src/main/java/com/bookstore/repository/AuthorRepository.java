@@ -1,7 +1,9 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.VersionStamp;
 import com.bookstore.model.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +11,10 @@ import java.util.List;
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     List<Author> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
+    
+    @Query("SELECT new com.bookstore.dto.VersionStamp(COUNT(a), MAX(a.id), SUM(a.version)) FROM Author a")
+    VersionStamp findVersionStamp();
 }
 
 
+
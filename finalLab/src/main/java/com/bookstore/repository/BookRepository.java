@@ -1,19 +1,176 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.BookSummaryDto;
+import com.bookstore.dto.VersionStamp;
 import com.bookstore.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+    // Списки: издательство подтягивается join'ом, авторы и жанры догружаются пачками (default_batch_fetch_size)
+    @Override
+    @EntityGraph(attributePaths = "publisher")
+    List<Book> findAll();
+    
+    @EntityGraph(attributePaths = "publisher")
     List<Book> findByTitleContainingIgnoreCase(String title);
+    
     Optional<Book> findByIsbn(String isbn);
+    
+    @EntityGraph(attributePaths = "publisher")
     List<Book> findByPublisherId(Long publisherId);
+    
+    @EntityGraph(attributePaths = "publisher")
     List<Book> findByGenresId(Long genreId);
+    
+    @EntityGraph(attributePaths = "publisher")
     List<Book> findByAuthorsId(Long authorId);
+    
+    // Карточка книги: всё, что показывается на странице, одним запросом
+    @EntityGraph(attributePaths = {"publisher", "authors", "genres"})
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findDetailedById(@Param("id") Long id);
+    
+    // Связи нужны для пересборки поискового текста вне транзакции
+    @EntityGraph(attributePaths = {"authors", "genres", "publisher"})
+    List<Book> findBySearchTextIsNull();
+    
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    // Книги со всеми связями, которые отдаются в ответе: после фиксации транзакции
+    // Hibernate догружает ленивые связи по одной, без batch fetch
+    @EntityGraph(attributePaths = {"publisher", "authors", "genres"})
+    List<Book> findByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT b.id FROM Book b ORDER BY b.id DESC")
+    List<Long> findNewestIds(Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b.id, b.title, b.isbn, b.price, b.pages, b.publicationYear, p.id, p.name " +
+           "FROM Book b LEFT JOIN b.publisher p WHERE b.id > :afterId ORDER BY b.id")
+    Stream<Object[]> streamExportRows(@Param("afterId") long afterId);
+    
+    // Полнотекстовый поиск (PostgreSQL): префиксное совпадение слов через tsvector
+    // и устойчивость к опечаткам через pg_trgm; сортировка по релевантности
+    @Query(value = "SELECT b.* FROM books b " +
+                   "WHERE to_tsvector('simple', coalesce(b.search_text, '')) @@ to_tsquery('simple', :tsQuery) " +
+                   "OR :query <% b.search_text " +
+                   "ORDER BY ts_rank(to_tsvector('simple', coalesce(b.search_text, '')), to_tsquery('simple', :tsQuery)) " +
+                   "+ word_similarity(:query, b.search_text) DESC, b.id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Book> searchRanked(@Param("tsQuery") String tsQuery, @Param("query") String query, @Param("limit") int limit);
+    
+    // Переносимый вариант поиска для баз без tsvector/pg_trgm (например, H2)
+    @EntityGraph(attributePaths = "publisher")
+    List<Book> findBySearchTextContainingOrderByTitleAsc(String text, Pageable pageable);
+    
+    // Keyset-пагинация по (title, id): первая страница
+    @Query("SELECT new com.bookstore.dto.BookSummaryDto(b.id, b.title, b.isbn, b.price, b.publicationYear, p.name, b.rating.count, b.rating.sum) " +
+           "FROM Book b JOIN b.publisher p " +
+           "ORDER BY b.title, b.id")
+    List<BookSummaryDto> findFirstSummaries(Pageable pageable);
+    
+    // Keyset-пагинация по (title, id): страница после указанного ключа. Условие title >= :title дублирует
+    // keyset-условие, чтобы база начинала чтение idx_books_title_id с курсора, а не с начала индекса
+    @Query("SELECT new com.bookstore.dto.BookSummaryDto(b.id, b.title, b.isbn, b.price, b.publicationYear, p.name, b.rating.count, b.rating.sum) " +
+           "FROM Book b JOIN b.publisher p " +
+           "WHERE b.title >= :title AND (b.title > :title OR b.id > :id) " +
+           "ORDER BY b.title, b.id")
+    List<BookSummaryDto> findSummariesAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+    
+    // Страница каталога с фильтрами (null - без фильтра). Сортировка приходит в Pageable
+    // (только поля из белого списка BookService), количество строк считается отдельным запросом без join
+    @Query(value = "SELECT new com.bookstore.dto.BookSummaryDto(b.id, b.title, b.isbn, b.price, b.publicationYear, p.name, b.rating.count, b.rating.sum) " +
+                   "FROM Book b LEFT JOIN b.publisher p " +
+                   "WHERE (:publisherId IS NULL OR p.id = :publisherId) " +
+                   "AND (:genreId IS NULL OR EXISTS (SELECT 1 FROM Book bg JOIN bg.genres g WHERE bg.id = b.id AND g.id = :genreId)) " +
+                   "AND (:authorId IS NULL OR EXISTS (SELECT 1 FROM Book ba JOIN ba.authors a WHERE ba.id = b.id AND a.id = :authorId)) " +
+                   "AND (:minPrice IS NULL OR b.price >= :minPrice) " +
+                   "AND (:maxPrice IS NULL OR b.price <= :maxPrice)",
+           countQuery = "SELECT COUNT(b) FROM Book b " +
+                        "WHERE (:publisherId IS NULL OR b.publisher.id = :publisherId) " +
+                        "AND (:genreId IS NULL OR EXISTS (SELECT 1 FROM Book bg JOIN bg.genres g WHERE bg.id = b.id AND g.id = :genreId)) " +
+                        "AND (:authorId IS NULL OR EXISTS (SELECT 1 FROM Book ba JOIN ba.authors a WHERE ba.id = b.id AND a.id = :authorId)) " +
+                        "AND (:minPrice IS NULL OR b.price >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR b.price <= :maxPrice)")
+    Page<BookSummaryDto> findSummaries(@Param("genreId") Long genreId, @Param("authorId") Long authorId,
+                                       @Param("publisherId") Long publisherId,
+                                       @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                       Pageable pageable);
+    
+    // Имена авторов для страницы кратких карточек: один запрос на страницу (id книги, имя, фамилия)
+    @Query("SELECT b.id, a.firstName, a.lastName FROM Book b JOIN b.authors a " +
+           "WHERE b.id IN :bookIds ORDER BY a.lastName, a.firstName")
+    List<Object[]> findAuthorNames(@Param("bookIds") Collection<Long> bookIds);
+    
+    // Атомарное изменение агрегатов рейтинга: added - добавленная оценка, removed - снятая (0 - нет).
+    // Рейтинг входит в ответ API, поэтому растёт и версия книги.
+    // Затронутая таблица указана явно: без неё Hibernate считает, что нативный UPDATE меняет всё,
+    // и очищает все регионы L2-кэша (авторы, жанры, издательства, роли) и кэш запросов
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    @Query(value = "UPDATE books SET " +
+                   "rating_count = rating_count + (CASE WHEN :added > 0 THEN 1 ELSE 0 END) - (CASE WHEN :removed > 0 THEN 1 ELSE 0 END), " +
+                   "rating_sum = rating_sum + :added - :removed, " +
+                   "rating_1 = rating_1 + (CASE WHEN :added = 1 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 1 THEN 1 ELSE 0 END), " +
+                   "rating_2 = rating_2 + (CASE WHEN :added = 2 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 2 THEN 1 ELSE 0 END), " +
+                   "rating_3 = rating_3 + (CASE WHEN :added = 3 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 3 THEN 1 ELSE 0 END), " +
+                   "rating_4 = rating_4 + (CASE WHEN :added = 4 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 4 THEN 1 ELSE 0 END), " +
+                   "rating_5 = rating_5 + (CASE WHEN :added = 5 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 5 THEN 1 ELSE 0 END), " +
+                   "version = version + 1 " +
+                   "WHERE id = :bookId",
+           nativeQuery = true)
+    int applyRatingChange(@Param("bookId") Long bookId, @Param("added") int added, @Param("removed") int removed);
+    
+    // Пересчёт агрегатов рейтинга по отзывам для диапазона id книг
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    @Query(value = "UPDATE books SET " +
+                   "rating_count = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id), " +
+                   "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.book_id = books.id), " +
+                   "rating_1 = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id AND r.rating = 1), " +
+                   "rating_2 = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id AND r.rating = 2), " +
+                   "rating_3 = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id AND r.rating = 3), " +
+                   "rating_4 = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id AND r.rating = 4), " +
+                   "rating_5 = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = books.id AND r.rating = 5), " +
+                   "version = version + 1 " +
+                   "WHERE id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int rebuildRatings(@Param("fromId") long fromId, @Param("toId") long toId);
+    
+    @Query("SELECT MIN(b.id) FROM Book b")
+    Long findMinId();
+    
+    @Query("SELECT MAX(b.id) FROM Book b")
+    Long findMaxId();
+    
+    @Query("SELECT COALESCE(SUM(b.rating.count), 0) FROM Book b")
+    long sumRatingCounts();
+    
+    @Query("SELECT new com.bookstore.dto.VersionStamp(COUNT(b), MAX(b.id), SUM(b.version)) FROM Book b")
+    VersionStamp findVersionStamp();
+    
+    @Query("SELECT new com.bookstore.dto.VersionStamp(b.version, p.version, " +
+           "(SELECT SUM(a.version) FROM Book ba JOIN ba.authors a WHERE ba.id = b.id), " +
+           "(SELECT SUM(g.version) FROM Book bg JOIN bg.genres g WHERE bg.id = b.id)) " +
+           "FROM Book b JOIN b.publisher p WHERE b.id = :id")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
 }
-
-
@@ -1,14 +1,25 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.BookActivityDto;
+import com.bookstore.model.Order;
 import com.bookstore.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+    
+    // Продажи по книгам с указанной даты без отменённых заказов
+    @Query("SELECT new com.bookstore.dto.BookActivityDto(oi.book.id, COUNT(oi), SUM(oi.quantity)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.orderDate >= :since AND o.status <> :excluded " +
+           "GROUP BY oi.book.id")
+    List<BookActivityDto> sumQuantitiesByBookSince(@Param("since") LocalDateTime since,
+                                                   @Param("excluded") Order.OrderStatus excluded);
 }
-
-
@@ -0,0 +1,42 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.OrderOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+    // FOR UPDATE SKIP LOCKED (таймаут -2 = LockOptions.SKIP_LOCKED): несколько экземпляров
+    // приложения забирают разные записи и не ждут друг друга
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT e FROM OrderOutbox e WHERE e.processedAt IS NULL AND e.availableAt <= :now " +
+           "AND e.attempts < :maxAttempts ORDER BY e.id")
+    List<OrderOutbox> findReadyForUpdate(@Param("now") LocalDateTime now,
+                                         @Param("maxAttempts") int maxAttempts,
+                                         Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE OrderOutbox e SET e.processedAt = :now, e.lastError = NULL WHERE e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OrderOutbox e SET e.availableAt = :retryAt, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+    
+    @Modifying
+    @Query("DELETE FROM OrderOutbox e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
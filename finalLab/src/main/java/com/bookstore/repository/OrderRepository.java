@@ -1,17 +1,59 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.OrderSummaryDto;
 import com.bookstore.model.Order;
 import com.bookstore.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
+    
+    // Страница заказов (null - без фильтра) краткими строками: позиции и книги не загружаются,
+    // число позиций считается подзапросом по idx_order_items_order_id. Сортировка приходит в Pageable
+    // (только поля из белого списка OrderService); для сортировки по дате есть индексы (user_id|status, order_date)
+    @Query(value = "SELECT new com.bookstore.dto.OrderSummaryDto(o.id, o.orderDate, o.status, o.totalAmount, " +
+                   "SIZE(o.orderItems), u.id, u.username) " +
+                   "FROM Order o JOIN o.user u " +
+                   "WHERE (:userId IS NULL OR u.id = :userId) AND (:status IS NULL OR o.status = :status)",
+           countQuery = "SELECT COUNT(o) FROM Order o " +
+                        "WHERE (:userId IS NULL OR o.user.id = :userId) AND (:status IS NULL OR o.status = :status)")
+    Page<OrderSummaryDto> findSummaries(@Param("userId") Long userId, @Param("status") Order.OrderStatus status,
+                                        Pageable pageable);
+    
+    // Заказ со всем, что показывается на странице заказа, одним запросом
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.book"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findDetailedById(@Param("id") Long id);
+    
+    // Переход статуса только из ожидаемого: повторная обработка того же события ничего не меняет
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id = :id AND o.status = :from")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("from") Order.OrderStatus from,
+                              @Param("to") Order.OrderStatus to);
+    
+    // Экспорт: одна строка на позицию заказа, чтение курсором порциями по fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.id, o.orderDate, o.status, o.user.id, o.totalAmount, i.id, i.book.id, i.quantity, i.price " +
+           "FROM Order o LEFT JOIN o.orderItems i WHERE o.id > :afterId ORDER BY o.id, i.id")
+    Stream<Object[]> streamExportRows(@Param("afterId") long afterId);
 }
 
 
@@ -1,7 +1,9 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.VersionStamp;
 import com.bookstore.model.Publisher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +11,10 @@ import java.util.List;
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
     List<Publisher> findByNameContainingIgnoreCase(String name);
+    
+    @Query("SELECT new com.bookstore.dto.VersionStamp(COUNT(p), MAX(p.id), SUM(p.version)) FROM Publisher p")
+    VersionStamp findVersionStamp();
 }
 
 
+
@@ -1,16 +1,64 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.BookActivityDto;
+import com.bookstore.dto.ReviewDto;
 import com.bookstore.model.Review;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    @Override
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Review> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Review> findById(Long id);
+    
     List<Review> findByBookId(Long bookId);
+    
+    @EntityGraph(attributePaths = "book")
     List<Review> findByUserId(Long userId);
-    List<Review> findByBookIdOrderByReviewDateDesc(Long bookId);
+    
+    // Лента отзывов книги, keyset-пагинация по (reviewDate, id) от новых к старым,
+    // rating = null - без фильтра. Индекс idx_reviews_book_date_id (book_id, review_date DESC, id DESC)
+    @Query("SELECT new com.bookstore.dto.ReviewDto(r.id, r.book.id, u.id, u.username, r.rating, r.comment, r.reviewDate) " +
+           "FROM Review r JOIN r.user u " +
+           "WHERE r.book.id = :bookId AND (:rating IS NULL OR r.rating = :rating) " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<ReviewDto> findFirstFeedPage(@Param("bookId") Long bookId, @Param("rating") Integer rating, Pageable pageable);
+    
+    // Условие reviewDate <= :date дублирует keyset-условие, чтобы база начинала чтение индекса с курсора
+    @Query("SELECT new com.bookstore.dto.ReviewDto(r.id, r.book.id, u.id, u.username, r.rating, r.comment, r.reviewDate) " +
+           "FROM Review r JOIN r.user u " +
+           "WHERE r.book.id = :bookId AND (:rating IS NULL OR r.rating = :rating) " +
+           "AND r.reviewDate <= :date AND (r.reviewDate < :date OR r.id < :id) " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<ReviewDto> findFeedPageAfter(@Param("bookId") Long bookId, @Param("rating") Integer rating,
+                                      @Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+    
+    // Количество и сумма оценок по книгам с указанной даты
+    @Query("SELECT new com.bookstore.dto.BookActivityDto(r.book.id, COUNT(r), SUM(r.rating)) " +
+           "FROM Review r WHERE r.reviewDate >= :since GROUP BY r.book.id")
+    List<BookActivityDto> sumRatingsByBookSince(@Param("since") LocalDateTime since);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.id, r.book.id, r.user.id, r.rating, r.reviewDate, r.comment " +
+           "FROM Review r WHERE r.id > :afterId ORDER BY r.id")
+    Stream<Object[]> streamExportRows(@Param("afterId") long afterId);
 }
 
 
@@ -1,15 +1,48 @@
 package com.bookstore.repository;
 
 import com.bookstore.model.Warehouse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+    @Override
+    @EntityGraph(attributePaths = "book")
+    List<Warehouse> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Optional<Warehouse> findById(Long id);
+    
+    @EntityGraph(attributePaths = "book")
     List<Warehouse> findByQuantityLessThanEqual(Integer quantity);
+    
+    @EntityGraph(attributePaths = "book")
     Warehouse findByBookId(Long bookId);
+    
+    // Состояние для LowStockMonitor: id записи, id книги, название, остаток, порог, версия
+    @Query("SELECT w.id, b.id, b.title, w.quantity, w.minThreshold, w.version FROM Warehouse w JOIN w.book b")
+    List<Object[]> findStockLevels();
+    
+    @Query("SELECT w.id, b.id, b.title, w.quantity, w.minThreshold, w.version " +
+           "FROM Warehouse w JOIN w.book b WHERE b.id IN :bookIds")
+    List<Object[]> findStockLevelsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT w.id, b.id, b.title, w.quantity, w.minThreshold, w.version " +
+           "FROM Warehouse w JOIN w.book b WHERE w.id > :afterId ORDER BY w.id")
+    Stream<Object[]> streamExportRows(@Param("afterId") long afterId);
 }
 
 
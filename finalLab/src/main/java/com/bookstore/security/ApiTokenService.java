@@ -0,0 +1,86 @@
+package com.bookstore.security;
+
+import com.bookstore.dto.TokenResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+// Токены доступа к /api/**: подписанный JWT с именем пользователя и ролями, поэтому запрос с токеном
+// проверяется без обращения к базе. Отозванные токены и отметки "отозвать всё" хранятся в памяти
+// не дольше срока жизни токена: после него токен отклоняется и так
+@Service
+public class ApiTokenService {
+    
+    public static final String ISSUER = "bookstore";
+    
+    public static final String ROLES_CLAIM = "roles";
+    
+    private final JwtEncoder jwtEncoder;
+    
+    private final Duration ttl;
+    
+    // jti отозванных токенов
+    private final Cache<String, Boolean> revokedTokens;
+    
+    // Имя пользователя -> момент, до которого (включительно) выданные ему токены недействительны
+    private final Cache<String, Instant> revokedUsers;
+    
+    public ApiTokenService(JwtEncoder jwtEncoder,
+                           @Value("${bookstore.security.jwt.ttl-minutes:30}") long ttlMinutes) {
+        this.jwtEncoder = jwtEncoder;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.revokedTokens = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+        this.revokedUsers = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+    }
+    
+    public TokenResponse issue(Authentication authentication) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(authentication.getName())
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(expiresAt)
+                .claim(ROLES_CLAIM, roles)
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new TokenResponse(token, now, expiresAt);
+    }
+    
+    public void revoke(Jwt jwt) {
+        revokedTokens.put(jwt.getId(), Boolean.TRUE);
+    }
+    
+    // Время выпуска в токене с точностью до секунды, поэтому отзываются и токены, выданные в ту же секунду
+    public void revokeAll(String username) {
+        revokedUsers.put(username, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+    
+    public boolean isRevoked(Jwt jwt) {
+        if (revokedTokens.getIfPresent(jwt.getId()) != null) {
+            return true;
+        }
+        Instant cutoff = revokedUsers.getIfPresent(jwt.getSubject());
+        return cutoff != null && jwt.getIssuedAt() != null && !jwt.getIssuedAt().isAfter(cutoff);
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookstore.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+
+// Разобранные и проверенные токены хранятся в ограниченном кэше: повторные запросы с тем же токеном
+// не проверяют подпись заново. Отзыв проверяется при каждом запросе, срок действия - при каждом попадании в кэш
+public class CachingJwtDecoder implements JwtDecoder {
+    
+    private final JwtDecoder delegate;
+    
+    private final Cache<String, Jwt> verified;
+    
+    private final ApiTokenService apiTokenService;
+    
+    public CachingJwtDecoder(JwtDecoder delegate, Cache<String, Jwt> verified, ApiTokenService apiTokenService) {
+        this.delegate = delegate;
+        this.verified = verified;
+        this.apiTokenService = apiTokenService;
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = verified.getIfPresent(token);
+        if (jwt == null || jwt.getExpiresAt() == null || !jwt.getExpiresAt().isAfter(Instant.now())) {
+            verified.invalidate(token);
+            jwt = delegate.decode(token);
+            verified.put(token, jwt);
+        }
+        if (apiTokenService.isRevoked(jwt)) {
+            throw new BadJwtException("Токен отозван");
+        }
+        return jwt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookstore.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// Очередь хеширования паролей заполнена: запрос отклоняется сразу (429), а не ждёт свободного потока.
+// Наследует AuthenticationServiceException, чтобы при входе пройти через обработчик ошибок входа
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+    
+    public PasswordHashingRejectedException() {
+        super("Сервер перегружен, повторите попытку позже");
+    }
+}
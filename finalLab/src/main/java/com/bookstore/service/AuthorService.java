@@ -1,13 +1,18 @@
 package com.bookstore.service;
 
+import com.bookstore.config.CacheConfig;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
 import com.bookstore.model.Author;
+import com.bookstore.model.Book;
 import com.bookstore.repository.AuthorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -17,6 +22,11 @@ public class AuthorService {
     @Autowired
     private AuthorRepository authorRepository;
     
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Cacheable(CacheConfig.AUTHORS)
+    @Transactional(readOnly = true)
     public List<Author> getAllAuthors() {
         return authorRepository.findAll();
     }
@@ -26,30 +36,44 @@ public class AuthorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Автор с ID " + id + " не найден"));
     }
     
+    // Авторы по списку id одним запросом; если каких-то нет - ResourceNotFoundException со списком id
+    @Transactional(readOnly = true)
+    public List<Author> getAuthorsByIds(Collection<Long> ids) {
+        return EntityBatch.loadAll(ids, authorRepository::findAllById, Author::getId, "Авторы с ID ");
+    }
+    
     public List<Author> searchAuthors(String name) {
         return authorRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name, name);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS, allEntries = true)
     public Author createAuthor(Author author) {
         if (author.getId() != null) {
             throw new ValidationException("ID должен быть пустым при создании автора");
         }
+        catalogDataVersion.changed();
         return authorRepository.save(author);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS, allEntries = true)
     public Author updateAuthor(Long id, Author authorDetails) {
         Author author = getAuthorById(id);
         author.setFirstName(authorDetails.getFirstName());
         author.setLastName(authorDetails.getLastName());
         author.setBiography(authorDetails.getBiography());
+        // Имя входит в поисковый текст книг
+        author.getBooks().forEach(Book::refreshSearchText);
+        catalogDataVersion.changed();
         return authorRepository.save(author);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.AUTHORS, allEntries = true)
     public void deleteAuthor(Long id) {
         Author author = getAuthorById(id);
         if (!author.getBooks().isEmpty()) {
             throw new ValidationException("Невозможно удалить автора с существующими книгами");
         }
+        catalogDataVersion.changed();
         authorRepository.delete(author);
     }
 }
@@ -0,0 +1,387 @@
+package com.bookstore.service;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.dto.BookImportRow;
+import com.bookstore.dto.ImportReport;
+import com.bookstore.dto.ImportRowError;
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.Genre;
+import com.bookstore.model.Publisher;
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.GenreRepository;
+import com.bookstore.repository.PublisherRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Массовый импорт каталога: файл читается потоково, порция проверяется параллельно,
+// издательства/авторы/жанры ищутся в словарях в памяти, книги вставляются JDBC-пакетами
+@Service
+public class BookImportService {
+
+    private static final String LIST_SEPARATOR = ";";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+
+    @Value("${bookstore.import.chunk-size:1000}")
+    private int chunkSize;
+
+    // Возвращает итоговый отчёт; отчёт по каждой сохранённой порции передаётся в chunkListener
+    public ImportReport importBooks(InputStream input, DataFormat format, Consumer<ImportReport> chunkListener)
+            throws IOException {
+        References references = loadReferences();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ImportReport total = new ImportReport(null);
+
+        List<BookImportRow> chunk = new ArrayList<>(chunkSize);
+        long firstRecord = 1;
+        int chunkNumber = 0;
+        try (MappingIterator<BookImportRow> rows = openReader(input, format)) {
+            while (rows.hasNextValue()) {
+                chunk.add(rows.nextValue());
+                if (chunk.size() == chunkSize) {
+                    ImportReport report = importChunk(++chunkNumber, firstRecord, chunk, references, transactionTemplate);
+                    total.add(report);
+                    chunkListener.accept(report);
+                    firstRecord += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            // Синтаксическая ошибка файла: дальше читать нельзя, уже сохранённые порции остаются
+            total.getErrors().add(new ImportRowError(firstRecord + chunk.size(), null,
+                    "Ошибка разбора файла: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            chunk.clear();
+        }
+        if (!chunk.isEmpty()) {
+            ImportReport report = importChunk(++chunkNumber, firstRecord, chunk, references, transactionTemplate);
+            total.add(report);
+            chunkListener.accept(report);
+        }
+        return total;
+    }
+
+    private MappingIterator<BookImportRow> openReader(InputStream input, DataFormat format) throws IOException {
+        if (format == DataFormat.CSV) {
+            // Колонки определяются заголовком файла, списки внутри ячейки разделяются ';'
+            CsvSchema schema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator(LIST_SEPARATOR);
+            return new CsvMapper().readerFor(BookImportRow.class).with(schema).readValues(input);
+        }
+        return objectMapper.readerFor(BookImportRow.class).readValues(input);
+    }
+
+    private ImportReport importChunk(int chunkNumber, long firstRecord, List<BookImportRow> rows,
+                                     References references, TransactionTemplate transactionTemplate) {
+        ImportReport report = new ImportReport(chunkNumber);
+        report.setProcessed(rows.size());
+
+        // Проверка не обращается к базе, поэтому выполняется параллельно
+        List<Candidate> candidates = IntStream.range(0, rows.size())
+                .parallel()
+                .mapToObj(i -> validate(firstRecord + i, rows.get(i)))
+                .collect(Collectors.toList());
+
+        Set<String> isbns = candidates.stream()
+                .filter(candidate -> candidate.error == null)
+                .map(candidate -> candidate.book.getIsbn())
+                .collect(Collectors.toSet());
+        Set<String> existing = isbns.isEmpty() ? Set.of() : new HashSet<>(bookRepository.findExistingIsbns(isbns));
+        Set<String> seen = new HashSet<>();
+        List<Candidate> accepted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error != null) {
+                report.getErrors().add(new ImportRowError(candidate.record, candidate.isbn, candidate.error));
+            } else if (existing.contains(candidate.isbn) || !seen.add(candidate.isbn)) {
+                report.getErrors().add(new ImportRowError(candidate.record, candidate.isbn,
+                        "Книга с ISBN " + candidate.isbn + " уже существует"));
+            } else {
+                accepted.add(candidate);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(accepted, references));
+            references.commit();
+            report.setImported(accepted.size());
+        } catch (RuntimeException e) {
+            // Порция откатывается целиком, новые записи справочников из неё забываются
+            references.rollback();
+            String message = "Порция не сохранена: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            accepted.forEach(candidate ->
+                    report.getErrors().add(new ImportRowError(candidate.record, candidate.isbn, message)));
+            report.getErrors().sort(Comparator.comparingLong(ImportRowError::getRecord));
+        }
+        report.setFailed(report.getProcessed() - report.getImported());
+        return report;
+    }
+
+    private Candidate validate(long record, BookImportRow row) {
+        List<String> problems = new ArrayList<>();
+        Book book = new Book();
+        book.setTitle(trimToNull(row.getTitle()));
+        book.setIsbn(trimToNull(row.getIsbn()));
+        book.setPrice(parseDecimal(row.getPrice(), "price", problems));
+        book.setPages(parseInteger(row.getPages(), "pages", problems));
+        book.setPublicationYear(parseInteger(row.getPublicationYear(), "publicationYear", problems));
+        book.setDescription(trimToNull(row.getDescription()));
+
+        validator.validate(book).stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .forEach(problems::add);
+
+        String publisher = trimToNull(row.getPublisher());
+        if (publisher == null) {
+            problems.add("Издательство обязательно");
+        }
+        Set<String> authors = splitList(row.getAuthors());
+        for (String author : authors) {
+            if (author.lastIndexOf(' ') < 0) {
+                problems.add("Автор должен быть указан как \"Имя Фамилия\": " + author);
+            }
+        }
+        Set<String> genres = splitList(row.getGenres());
+
+        if (!problems.isEmpty()) {
+            return Candidate.invalid(record, book.getIsbn(), String.join("; ", problems));
+        }
+        return new Candidate(record, book, publisher, authors, genres);
+    }
+
+    private void persist(List<Candidate> candidates, References references) {
+        for (Candidate candidate : candidates) {
+            Book book = candidate.book;
+            book.setPublisher(references.publisher(candidate.publisher));
+            book.setAuthors(candidate.authors.stream()
+                    .map(references::author)
+                    .collect(Collectors.toCollection(HashSet::new)));
+            book.setGenres(candidate.genres.stream()
+                    .map(references::genre)
+                    .collect(Collectors.toCollection(HashSet::new)));
+            entityManager.persist(book);
+        }
+        // Вставки уходят пакетами по hibernate.jdbc.batch_size, затем контекст очищается
+        entityManager.flush();
+        entityManager.clear();
+        catalogDataVersion.changed();
+    }
+
+    private References loadReferences() {
+        References references = new References();
+        publisherRepository.findAll().forEach(publisher ->
+                references.publishers.putIfAbsent(key(publisher.getName()), publisher));
+        authorRepository.findAll().forEach(author ->
+                references.authors.putIfAbsent(key(author.getFullName()), author));
+        genreRepository.findAll().forEach(genre ->
+                references.genres.putIfAbsent(key(genre.getName()), genre));
+        return references;
+    }
+
+    private static String key(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static Set<String> splitList(List<String> values) {
+        Set<String> result = new LinkedHashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value == null) {
+                    continue;
+                }
+                for (String part : value.split(LIST_SEPARATOR)) {
+                    String name = trimToNull(part);
+                    if (name != null) {
+                        result.add(name.replaceAll("\\s+", " "));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BigDecimal parseDecimal(String value, String field, List<String> problems) {
+        String text = trimToNull(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            problems.add("Некорректное значение поля " + field + ": " + text);
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String value, String field, List<String> problems) {
+        String text = trimToNull(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            problems.add("Некорректное значение поля " + field + ": " + text);
+            return null;
+        }
+    }
+
+    private static class Candidate {
+        private final long record;
+        private final String isbn;
+        private final Book book;
+        private final String publisher;
+        private final Set<String> authors;
+        private final Set<String> genres;
+        private final String error;
+
+        Candidate(long record, Book book, String publisher, Set<String> authors, Set<String> genres) {
+            this.record = record;
+            this.isbn = book.getIsbn();
+            this.book = book;
+            this.publisher = publisher;
+            this.authors = authors;
+            this.genres = genres;
+            this.error = null;
+        }
+
+        private Candidate(long record, String isbn, String error) {
+            this.record = record;
+            this.isbn = isbn;
+            this.book = null;
+            this.publisher = null;
+            this.authors = Set.of();
+            this.genres = Set.of();
+            this.error = error;
+        }
+
+        static Candidate invalid(long record, String isbn, String error) {
+            return new Candidate(record, isbn, error);
+        }
+    }
+
+    // Словари справочников на время импорта. Записи, созданные в текущей порции,
+    // считаются временными до коммита транзакции.
+    private class References {
+        private final Map<String, Publisher> publishers = new HashMap<>();
+        private final Map<String, Author> authors = new HashMap<>();
+        private final Map<String, Genre> genres = new HashMap<>();
+        private final List<Runnable> pending = new ArrayList<>();
+
+        Publisher publisher(String name) {
+            return publishers.computeIfAbsent(key(name), key -> {
+                Publisher publisher = new Publisher(name);
+                entityManager.persist(publisher);
+                pending.add(() -> publishers.remove(key));
+                return publisher;
+            });
+        }
+
+        Author author(String fullName) {
+            return authors.computeIfAbsent(key(fullName), key -> {
+                int split = fullName.lastIndexOf(' ');
+                Author author = new Author(fullName.substring(0, split), fullName.substring(split + 1));
+                entityManager.persist(author);
+                pending.add(() -> authors.remove(key));
+                return author;
+            });
+        }
+
+        Genre genre(String name) {
+            return genres.computeIfAbsent(key(name), key -> {
+                Genre genre = new Genre(name);
+                entityManager.persist(genre);
+                pending.add(() -> genres.remove(key));
+                return genre;
+            });
+        }
+
+        void commit() {
+            if (!pending.isEmpty()) {
+                // Списки справочников в Spring Cache устарели
+                clearCache(CacheConfig.AUTHORS);
+                clearCache(CacheConfig.GENRES);
+                clearCache(CacheConfig.PUBLISHERS);
+                pending.clear();
+            }
+        }
+
+        void rollback() {
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+
+        private void clearCache(String name) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.RatingRebuildReport;
+import com.bookstore.exception.ValidationException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Денормализованные агрегаты оценок в books (BookRating): отзывы меняют их инкрементально,
+// полный пересчёт по таблице reviews нужен для заполнения и исправления расхождений
+@Service
+public class BookRatingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookRatingService.class);
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Value("${bookstore.ratings.rebuild.chunk-size:5000}")
+    private int chunkSize;
+    
+    @Value("${bookstore.ratings.rebuild.threads:4}")
+    private int threads;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    // Вызывается в транзакции изменения отзыва: строка книги блокируется до коммита,
+    // поэтому параллельные отзывы на одну книгу не теряют приращения
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(Long bookId, Integer addedRating, Integer removedRating) {
+        bookRepository.applyRatingChange(bookId, addedRating == null ? 0 : addedRating,
+                removedRating == null ? 0 : removedRating);
+        catalogDataVersion.changed();
+    }
+    
+    // Если суммарное число оценок в books не совпадает с числом отзывов (первый запуск после
+    // добавления колонок или удаление отзывов в обход сервиса), пересчитываем в фоне
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        boolean outdated = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                bookRepository.sumRatingCounts() != reviewRepository.count()));
+        if (outdated) {
+            CompletableFuture.runAsync(() -> {
+                RatingRebuildReport report = rebuild();
+                logger.info("Рейтинги книг пересчитаны: {} книг за {} мс", report.getBooks(), report.getDurationMs());
+            }).exceptionally(e -> {
+                logger.error("Не удалось пересчитать рейтинги книг", e);
+                return null;
+            });
+        }
+    }
+    
+    // Пересчёт диапазонами id книг: каждый диапазон - отдельная транзакция в своём потоке
+    public RatingRebuildReport rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ValidationException("Пересчёт рейтингов уже выполняется");
+        }
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("rating-rebuild-"));
+        try {
+            Long minId = bookRepository.findMinId();
+            Long maxId = bookRepository.findMaxId();
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            if (minId != null) {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                for (long from = minId; from <= maxId; from += chunkSize) {
+                    long fromId = from;
+                    long toId = Math.min(from + chunkSize - 1, maxId);
+                    chunks.add(CompletableFuture.supplyAsync(() ->
+                            transactionTemplate.execute(status -> bookRepository.rebuildRatings(fromId, toId)), pool));
+                }
+            }
+            long books = chunks.stream().mapToLong(CompletableFuture::join).sum();
+            return new RatingRebuildReport(chunks.size(), books, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            pool.shutdownNow();
+            // Часть диапазонов могла зафиксироваться и при ошибке в остальных
+            catalogDataVersion.changed();
+            rebuilding.set(false);
+        }
+    }
+}
@@ -1,19 +1,47 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.BookSummaryDto;
+import com.bookstore.dto.CursorPage;
+import com.bookstore.exception.PreconditionFailedException;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
 import com.bookstore.model.Book;
+import com.bookstore.model.Warehouse;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.WarehouseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class BookService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
+    // Параметр сортировки страницы каталога -> поле Book. Остальные значения заменяются сортировкой по названию
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "title", "title",
+            "price", "price",
+            "year", "publicationYear",
+            "id", "id");
+    
     @Autowired
     private BookRepository bookRepository;
     
@@ -26,18 +54,126 @@ public class BookService {
     @Autowired
     private GenreService genreService;
     
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+    
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Value("${bookstore.search.full-text:true}")
+    private boolean fullTextSearch;
+    
     @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummaryDto> getBooksPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<BookSummaryDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookRepository.findFirstSummaries(limit);
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2);
+            rows = bookRepository.findSummariesAfter(key[1], KeysetCursor.decodeId(key[0]), limit);
+        }
+        
+        if (rows.size() <= pageSize) {
+            fillAuthorNames(rows);
+            return new CursorPage<>(rows, null);
+        }
+        List<BookSummaryDto> items = new ArrayList<>(rows.subList(0, pageSize));
+        fillAuthorNames(items);
+        BookSummaryDto last = items.get(items.size() - 1);
+        return new CursorPage<>(items, KeysetCursor.encode(String.valueOf(last.getId()), last.getTitle()));
+    }
+    
+    // Страница каталога с фильтрами по жанру, автору, издательству и цене (null - без фильтра)
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDto> getBookSummaries(Long genreId, Long authorId, Long publisherId,
+                                                 BigDecimal minPrice, BigDecimal maxPrice,
+                                                 int page, int size, String sort, String direction) {
+        int pageSize = pageSize(size);
+        String field = SORT_FIELDS.get(sortKey(sort));
+        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id - последний ключ сортировки, чтобы порядок книг с одинаковым значением не менялся между страницами
+        Sort order = field.equals("id") ? Sort.by(dir, "id") : Sort.by(dir, field).and(Sort.by(dir, "id"));
+        
+        Page<BookSummaryDto> result = bookRepository.findSummaries(genreId, authorId, publisherId, minPrice, maxPrice,
+                PageRequest.of(pageNumber(page), pageSize, order));
+        fillAuthorNames(result.getContent());
+        return result;
+    }
+    
+    public static String sortKey(String sort) {
+        return SORT_FIELDS.containsKey(sort) ? sort : "title";
+    }
+    
+    // Размер и номер страницы в том виде, в каком они попадут в запрос
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    public static int pageNumber(int page) {
+        return Math.max(page, 0);
+    }
+    
+    private void fillAuthorNames(List<BookSummaryDto> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        Map<Long, BookSummaryDto> byId = books.stream()
+                .collect(Collectors.toMap(BookSummaryDto::getId, Function.identity()));
+        for (Object[] row : bookRepository.findAuthorNames(byId.keySet())) {
+            byId.get((Long) row[0]).getAuthorNames().add(row[1] + " " + row[2]);
+        }
+    }
+    
     public Book getBookById(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Книга с ID " + id + " не найдена"));
     }
     
-    public List<Book> searchBooks(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+    // Книги по списку id одним запросом (позиции заказа); если каких-то нет - ResourceNotFoundException
+    public List<Book> getBooksByIds(Collection<Long> ids) {
+        return EntityBatch.loadAll(ids, bookRepository::findByIdIn, Book::getId, "Книги с ID ");
+    }
+    
+    // Полная карточка книги (издательство, авторы, жанры) одним запросом
+    @Transactional(readOnly = true)
+    public Book getBookDetails(Long id) {
+        return bookRepository.findDetailedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Книга с ID " + id + " не найдена"));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Book> searchBooks(String query, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase();
+        List<String> terms = Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        if (!fullTextSearch) {
+            return bookRepository.findBySearchTextContainingOrderByTitleAsc(normalized, PageRequest.of(0, maxResults));
+        }
+        // Каждое слово ищется как префикс: "толст мир" -> "толст:* & мир:*"
+        String tsQuery = terms.stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        return bookRepository.searchRanked(tsQuery, String.join(" ", terms), maxResults);
     }
     
     public List<Book> getBooksByPublisher(Long publisherId) {
@@ -65,11 +201,22 @@ public class BookService {
         if (book.getPublisher() != null && book.getPublisher().getId() != null) {
             book.setPublisher(publisherService.getPublisherById(book.getPublisher().getId()));
         }
+        catalogDataVersion.changed();
         return bookRepository.save(book);
     }
     
     public Book updateBook(Long id, Book bookDetails) {
+        return updateBook(id, bookDetails, List.of());
+    }
+    
+    // ifMatch - ETag'и из If-Match (ETag карточки GET /api/books/{id}). Версия, @JsonIgnore в Book,
+    // в запросе не приходит, поэтому изменение устаревшей копии отсекается сравнением ETag. Проверка идёт
+    // в транзакции изменения; запись, зафиксированную между проверкой и сохранением, отклонит @Version
+    public Book updateBook(Long id, Book bookDetails, List<String> ifMatch) {
         Book book = getBookById(id);
+        if (!ifMatch.isEmpty() && !matchesAny(ifMatch, catalogVersionService.getBookETag(id))) {
+            throw new PreconditionFailedException("Книга с ID " + id + " изменена после получения, загрузите её заново");
+        }
         book.setTitle(bookDetails.getTitle());
         book.setIsbn(bookDetails.getIsbn());
         book.setPrice(bookDetails.getPrice());
@@ -85,14 +232,35 @@ public class BookService {
         if (bookDetails.getGenres() != null) {
             book.setGenres(bookDetails.getGenres());
         }
+        book.refreshSearchText();
+        catalogDataVersion.changed();
         return bookRepository.save(book);
     }
     
+    private static boolean matchesAny(List<String> ifMatch, String eTag) {
+        for (String candidate : ifMatch) {
+            // Сжатый ответ Tomcat отдаёт с ETag W/"...", клиент возвращает его как есть
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     public void deleteBook(Long id) {
         Book book = getBookById(id);
         if (!book.getOrderItems().isEmpty()) {
             throw new ValidationException("Невозможно удалить книгу, которая присутствует в заказах");
         }
+        // Запись склада удаляется вместе с книгой. Обратной связи book -> warehouse в модели нет:
+        // Hibernate не может загружать её лениво и читал бы склад отдельным запросом на каждую книгу
+        Warehouse warehouse = warehouseRepository.findByBookId(id);
+        if (warehouse != null) {
+            warehouseRepository.delete(warehouse);
+            lowStockMonitor.stockRemoved(id);
+        }
+        catalogDataVersion.changed();
         bookRepository.delete(book);
     }
 }
@@ -0,0 +1,36 @@
+package com.bookstore.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Версия данных каталога для кэша фрагментов, в памяти: счётчик увеличивается после фиксации каждой
+// транзакции, менявшей книги, авторов, жанры, издательства или рейтинги. Чтение версии - O(1), без запросов
+// к базе, в отличие от ETag'ов CatalogVersionService. Изменения в обход сервисов (SQL вручную, другой
+// экземпляр приложения) счётчик не видит, такие фрагменты обновятся по времени жизни кэша
+@Service
+public class CatalogDataVersion {
+    
+    private final AtomicLong version = new AtomicLong();
+    
+    public String current() {
+        return String.valueOf(version.get());
+    }
+    
+    // Увеличение после коммита: запрос, успевший прочитать новую версию, прочитает и новые данные.
+    // Увеличение до коммита позволило бы закэшировать старые данные под новой версией
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
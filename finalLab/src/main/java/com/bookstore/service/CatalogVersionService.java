@@ -0,0 +1,55 @@
+package com.bookstore.service;
+
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.GenreRepository;
+import com.bookstore.repository.PublisherRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// ETag ресурсов API каталога. Считаются агрегатами по версиям строк, данные при этом не загружаются
+@Service
+@Transactional(readOnly = true)
+public class CatalogVersionService {
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private AuthorRepository authorRepository;
+    
+    @Autowired
+    private GenreRepository genreRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    // null, если книги нет: ответ строится обычным путём (404)
+    public String getBookETag(Long id) {
+        return bookRepository.findVersionStampById(id)
+                .map(stamp -> stamp.toETag("book"))
+                .orElse(null);
+    }
+    
+    // В списке книг выводятся их издательства, авторы и жанры
+    public String getBooksETag() {
+        return bookRepository.findVersionStamp()
+                .and(authorRepository.findVersionStamp())
+                .and(genreRepository.findVersionStamp())
+                .and(publisherRepository.findVersionStamp())
+                .toETag("books");
+    }
+    
+    public String getAuthorsETag() {
+        return authorRepository.findVersionStamp().toETag("authors");
+    }
+    
+    public String getGenresETag() {
+        return genreRepository.findVersionStamp().toETag("genres");
+    }
+    
+    public String getPublishersETag() {
+        return publisherRepository.findVersionStamp().toETag("publishers");
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.ValidationException;
+
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    
+    private final String contentType;
+    private final String extension;
+    
+    DataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public static DataFormat ofContentType(String contentType) {
+        for (DataFormat format : values()) {
+            if (contentType != null && contentType.toLowerCase().startsWith(format.contentType)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Неподдерживаемый тип содержимого: " + contentType);
+    }
+    
+    public static DataFormat of(String value) {
+        for (DataFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Неподдерживаемый формат данных: " + value);
+    }
+}
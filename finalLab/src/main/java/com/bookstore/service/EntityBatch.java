@@ -0,0 +1,37 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.ResourceNotFoundException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Загрузка сущностей по списку id одним запросом (findAllById) с проверкой, что найдены все.
+// Отсутствующие id перечисляются в сообщении ResourceNotFoundException
+final class EntityBatch {
+    
+    private EntityBatch() {}
+    
+    static <T> List<T> loadAll(Collection<Long> ids, Function<Set<Long>, List<T>> loader,
+                               Function<T, Long> idOf, String notFoundPrefix) {
+        Set<Long> requested = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        List<T> found = loader.apply(requested);
+        if (found.size() < requested.size()) {
+            Set<Long> missing = new LinkedHashSet<>(requested);
+            found.forEach(entity -> missing.remove(idOf.apply(entity)));
+            throw new ResourceNotFoundException(notFoundPrefix + missing.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")) + " не найдены");
+        }
+        return found;
+    }
+}
@@ -0,0 +1,134 @@
+package com.bookstore.service;
+
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.repository.ReviewRepository;
+import com.bookstore.repository.WarehouseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Потоковая выгрузка данных: строки читаются курсором и сразу пишутся в ответ,
+// поэтому расход памяти не зависит от объёма таблицы
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    
+    // Порядок колонок совпадает с порядком полей в запросах streamExportRows
+    private static final List<String> ORDER_COLUMNS = List.of(
+            "orderId", "orderDate", "status", "userId", "totalAmount", "itemId", "bookId", "quantity", "price");
+    private static final List<String> BOOK_COLUMNS = List.of(
+            "id", "title", "isbn", "price", "pages", "publicationYear", "publisherId", "publisherName");
+    private static final List<String> WAREHOUSE_COLUMNS = List.of(
+            "id", "bookId", "bookTitle", "quantity", "minThreshold", "version");
+    private static final List<String> REVIEW_COLUMNS = List.of(
+            "id", "bookId", "userId", "rating", "reviewDate", "comment");
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public void exportOrders(long afterId, DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = orderRepository.streamExportRows(afterId)) {
+            write(ORDER_COLUMNS, rows, format, out);
+        }
+    }
+    
+    public void exportBooks(long afterId, DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = bookRepository.streamExportRows(afterId)) {
+            write(BOOK_COLUMNS, rows, format, out);
+        }
+    }
+    
+    public void exportWarehouse(long afterId, DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = warehouseRepository.streamExportRows(afterId)) {
+            write(WAREHOUSE_COLUMNS, rows, format, out);
+        }
+    }
+    
+    public void exportReviews(long afterId, DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = reviewRepository.streamExportRows(afterId)) {
+            write(REVIEW_COLUMNS, rows, format, out);
+        }
+    }
+    
+    private void write(List<String> columns, Stream<Object[]> rows, DataFormat format, OutputStream out)
+            throws IOException {
+        if (format == DataFormat.CSV) {
+            writeCsv(columns, rows.iterator(), out);
+        } else {
+            writeNdjson(columns, rows.iterator(), out);
+        }
+    }
+    
+    private void writeNdjson(List<String> columns, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Поток ответа закрывает контейнер сервлетов
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Записи разделяются только переводом строки, без пробела по умолчанию
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                generator.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    generator.writeFieldName(columns.get(i));
+                    generator.writeObject(row[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+    
+    private void writeCsv(List<String> columns, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", columns));
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(row[i]));
+            }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+    
+    // Экранирование по RFC 4180
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,13 +1,18 @@
 package com.bookstore.service;
 
+import com.bookstore.config.CacheConfig;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
+import com.bookstore.model.Book;
 import com.bookstore.model.Genre;
 import com.bookstore.repository.GenreRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -17,6 +22,11 @@ public class GenreService {
     @Autowired
     private GenreRepository genreRepository;
     
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Cacheable(CacheConfig.GENRES)
+    @Transactional(readOnly = true)
     public List<Genre> getAllGenres() {
         return genreRepository.findAll();
     }
@@ -26,29 +36,42 @@ public class GenreService {
                 .orElseThrow(() -> new ResourceNotFoundException("Жанр с ID " + id + " не найден"));
     }
     
+    @Transactional(readOnly = true)
+    public List<Genre> getGenresByIds(Collection<Long> ids) {
+        return EntityBatch.loadAll(ids, genreRepository::findAllById, Genre::getId, "Жанры с ID ");
+    }
+    
     public List<Genre> searchGenres(String name) {
         return genreRepository.findByNameContainingIgnoreCase(name);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.GENRES, allEntries = true)
     public Genre createGenre(Genre genre) {
         if (genre.getId() != null) {
             throw new ValidationException("ID должен быть пустым при создании жанра");
         }
+        catalogDataVersion.changed();
         return genreRepository.save(genre);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.GENRES, allEntries = true)
     public Genre updateGenre(Long id, Genre genreDetails) {
         Genre genre = getGenreById(id);
         genre.setName(genreDetails.getName());
         genre.setDescription(genreDetails.getDescription());
+        // Имя входит в поисковый текст книг
+        genre.getBooks().forEach(Book::refreshSearchText);
+        catalogDataVersion.changed();
         return genreRepository.save(genre);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.GENRES, allEntries = true)
     public void deleteGenre(Long id) {
         Genre genre = getGenreById(id);
         if (!genre.getBooks().isEmpty()) {
             throw new ValidationException("Невозможно удалить жанр с существующими книгами");
         }
+        catalogDataVersion.changed();
         genreRepository.delete(genre);
     }
 }
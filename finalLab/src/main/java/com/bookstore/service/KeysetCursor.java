@@ -0,0 +1,42 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Непрозрачный курсор для keyset-пагинации: значения ключа склеиваются через ':'
+// и кодируются в Base64 (URL-safe). Разделитель допустим только в последнем значении.
+final class KeysetCursor {
+    
+    private static final String SEPARATOR = ":";
+    
+    private KeysetCursor() {}
+    
+    static String encode(String... parts) {
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, expectedParts);
+            if (parts.length != expectedParts) {
+                throw new ValidationException("Некорректный курсор");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
+    }
+    
+    static Long decodeId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.RestockEvent;
+import com.bookstore.dto.StockLevelDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Получатель по умолчанию - журнал приложения. Заявки поставщику, письма и т.п. подключаются
+// своими реализациями RestockEventSink
+@Component
+public class LoggingRestockEventSink implements RestockEventSink {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoggingRestockEventSink.class);
+    
+    @Override
+    public void publish(RestockEvent event) {
+        StockLevelDto level = event.getLevel();
+        if (event.getType() == RestockEvent.Type.LOW) {
+            logger.warn("Нужна поставка: \"{}\" (книга {}), на складе {} при пороге {}",
+                    level.getTitle(), level.getBookId(), level.getQuantity(), level.getMinThreshold());
+        } else {
+            logger.info("Остаток восстановлен: \"{}\" (книга {}), на складе {} при пороге {}",
+                    level.getTitle(), level.getBookId(), level.getQuantity(), level.getMinThreshold());
+        }
+    }
+}
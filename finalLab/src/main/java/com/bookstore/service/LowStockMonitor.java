@@ -0,0 +1,267 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.RestockEvent;
+import com.bookstore.dto.StockLevelDto;
+import com.bookstore.model.Warehouse;
+import com.bookstore.repository.WarehouseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Остатки склада относительно минимальных порогов, в памяти. Состояние читается из базы один раз
+// при старте, дальше его обновляет каждая зафиксированная транзакция, менявшая остатки: оформление
+// заказа, создание, правка и удаление записей склада. Позиции упорядочены по запасу над порогом,
+// поэтому позиции на пороге и ниже отдаются без запросов к warehouse, за O(log n + k).
+// Изменения в обход приложения (SQL вручную, другой экземпляр приложения) видны только после перезапуска
+@Service
+public class LowStockMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LowStockMonitor.class);
+    
+    // Сначала наибольшая нехватка; при равном запасе - по id книги
+    private static final Comparator<Level> BY_MARGIN =
+            Comparator.comparingInt((Level level) -> level.margin).thenComparingLong(level -> level.bookId);
+    
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    
+    @Autowired
+    private List<RestockEventSink> sinks;
+    
+    // Последнее известное состояние каждой записи склада по id книги
+    private final Map<Long, Level> levels = new ConcurrentHashMap<>();
+    
+    // Только позиции с порогом. Обе структуры меняются под lock, читаются без блокировки
+    private final NavigableSet<Level> byMargin = new ConcurrentSkipListSet<>(BY_MARGIN);
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private final AtomicInteger lowCount = new AtomicInteger();
+    
+    // Один поток доставки: получатели видят события в том порядке, в котором менялись остатки,
+    // а медленный получатель не задерживает оформление заказа
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "restock-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Counter lowEvents;
+    
+    private final Counter restockedEvents;
+    
+    public LowStockMonitor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        // Не read-only: начальное состояние читается с основной базы, реплика может отставать
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("bookstore.stock.low.items", lowCount, AtomicInteger::get)
+                .description("Позиции склада с остатком на минимальном пороге или ниже")
+                .register(meterRegistry);
+        this.lowEvents = restockEvents(meterRegistry, RestockEvent.Type.LOW);
+        this.restockedEvents = restockEvents(meterRegistry, RestockEvent.Type.RESTOCKED);
+    }
+    
+    private static Counter restockEvents(MeterRegistry meterRegistry, RestockEvent.Type type) {
+        return Counter.builder("bookstore.stock.restock.events")
+                .description("Переходы остатков через минимальный порог")
+                .tag("type", type.name())
+                .register(meterRegistry);
+    }
+    
+    // DataInitializer к этому моменту уже заполнил склад
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<Object[]> rows = transactionTemplate.execute(status -> warehouseRepository.findStockLevels());
+        rows.forEach(row -> apply(level(row), false));
+        logger.info("Монитор остатков: {} позиций склада, на пороге и ниже - {}", levels.size(), lowCount.get());
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        delivery.shutdown();
+        delivery.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    // Позиции с остатком не выше порога + margin, начиная с наибольшей нехватки
+    public List<StockLevelDto> getLowStock(int margin) {
+        Level bound = new Level(null, Long.MAX_VALUE, null, margin, 0, 0L);
+        return byMargin.headSet(bound, true).stream()
+                .map(Level::toDto)
+                .toList();
+    }
+    
+    // Списание остатков заказом. Строки уже заблокированы текущей транзакцией,
+    // поэтому прочитанные здесь значения и станут зафиксированными
+    public void stockReserved(Collection<Long> bookIds) {
+        List<Level> reserved = warehouseRepository.findStockLevelsByBookIds(bookIds).stream()
+                .map(LowStockMonitor::level)
+                .toList();
+        afterCommit(() -> reserved.forEach(level -> apply(level, true)));
+    }
+    
+    // Запись склада сохранена через JPA: значения берутся после фиксации, когда версия уже увеличена
+    public void stockChanged(Warehouse warehouse) {
+        String title = warehouse.getBook().getTitle();
+        afterCommit(() -> apply(new Level(warehouse.getId(), warehouse.getBook().getId(), title,
+                warehouse.getQuantity(), warehouse.getMinThreshold(), warehouse.getVersion()), true));
+    }
+    
+    public void stockRemoved(Long bookId) {
+        afterCommit(() -> remove(bookId));
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Транзакция уже зафиксирована: сбой монитора не должен превращаться в ошибку запроса
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    logger.error("Не удалось обновить монитор остатков", e);
+                }
+            }
+        });
+    }
+    
+    // Транзакции фиксируются и доходят сюда в разном порядке; версия строки растёт при каждом изменении
+    // остатка, поэтому более старое состояние не перезаписывает более новое
+    private void apply(Level update, boolean notify) {
+        lock.lock();
+        try {
+            Level current = levels.get(update.bookId);
+            if (current != null && current.version >= update.version) {
+                return;
+            }
+            if (update.title == null && current != null) {
+                update = update.withTitle(current.title);
+            }
+            levels.put(update.bookId, update);
+            if (current != null && current.tracked()) {
+                byMargin.remove(current);
+            }
+            if (update.tracked()) {
+                byMargin.add(update);
+            }
+            
+            boolean wasLow = current != null && current.isLow();
+            if (wasLow != update.isLow()) {
+                lowCount.addAndGet(update.isLow() ? 1 : -1);
+                if (notify) {
+                    publish(new RestockEvent(update.isLow() ? RestockEvent.Type.LOW : RestockEvent.Type.RESTOCKED,
+                            update.toDto()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void remove(Long bookId) {
+        lock.lock();
+        try {
+            Level current = levels.remove(bookId);
+            if (current != null && current.tracked()) {
+                byMargin.remove(current);
+                if (current.isLow()) {
+                    lowCount.decrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Вызывается под lock, чтобы события попадали в очередь доставки в порядке изменений
+    private void publish(RestockEvent event) {
+        (event.getType() == RestockEvent.Type.LOW ? lowEvents : restockedEvents).increment();
+        delivery.execute(() -> {
+            for (RestockEventSink sink : sinks) {
+                try {
+                    sink.publish(event);
+                } catch (RuntimeException e) {
+                    logger.error("Получатель {} не принял событие склада", sink.getClass().getSimpleName(), e);
+                }
+            }
+        });
+    }
+    
+    // Строка findStockLevels: id записи, id книги, название, остаток, порог, версия
+    private static Level level(Object[] row) {
+        return new Level((Long) row[0], (Long) row[1], (String) row[2], (Integer) row[3], (Integer) row[4],
+                (Long) row[5]);
+    }
+    
+    private static final class Level {
+        
+        private final Long warehouseId;
+        
+        private final long bookId;
+        
+        private final String title;
+        
+        private final int quantity;
+        
+        private final Integer minThreshold;
+        
+        private final long version;
+        
+        // Запас над порогом: 0 и меньше - пора пополнять
+        private final int margin;
+        
+        Level(Long warehouseId, long bookId, String title, int quantity, Integer minThreshold, Long version) {
+            this.warehouseId = warehouseId;
+            this.bookId = bookId;
+            this.title = title;
+            this.quantity = quantity;
+            this.minThreshold = minThreshold;
+            this.version = version == null ? 0 : version;
+            this.margin = minThreshold == null ? Integer.MAX_VALUE : quantity - minThreshold;
+        }
+        
+        Level withTitle(String title) {
+            return new Level(warehouseId, bookId, title, quantity, minThreshold, version);
+        }
+        
+        boolean tracked() {
+            return minThreshold != null;
+        }
+        
+        boolean isLow() {
+            return tracked() && margin <= 0;
+        }
+        
+        StockLevelDto toDto() {
+            return new StockLevelDto(warehouseId, bookId, title, quantity, minThreshold);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bookstore.service;
+
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderOutbox;
+import com.bookstore.repository.OrderOutboxRepository;
+import com.bookstore.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Фоновая обработка принятых заказов: записи outbox забираются пачками и переводят заказ
+// PENDING -> PROCESSING -> SHIPPED. Каждый шаг - условный переход статуса, поэтому повторная
+// выдача той же записи (после падения или истечения аренды) безопасна.
+@Service
+@ConditionalOnProperty(name = "bookstore.orders.processing.enabled", matchIfMissing = true)
+public class OrderProcessingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderProcessingService.class);
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    @Qualifier("orderProcessingExecutor")
+    private ExecutorService executor;
+    
+    @Value("${bookstore.orders.processing.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${bookstore.orders.processing.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${bookstore.orders.processing.lease-seconds:60}")
+    private long leaseSeconds;
+    
+    @Value("${bookstore.orders.processing.retry-backoff-seconds:10}")
+    private long retryBackoffSeconds;
+    
+    @Value("${bookstore.orders.processing.retention-hours:24}")
+    private long retentionHours;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Semaphore permits;
+    
+    public OrderProcessingService(PlatformTransactionManager transactionManager,
+                                  @Value("${bookstore.orders.processing.workers:4}") int workers) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.permits = new Semaphore(workers);
+    }
+    
+    @Scheduled(fixedDelayString = "${bookstore.orders.processing.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            // Забираем не больше, чем есть свободных обработчиков, и продолжаем, пока очередь не опустеет
+            int limit = Math.min(batchSize, permits.availablePermits());
+            while (limit > 0) {
+                int batchLimit = limit;
+                List<OrderOutbox> claimed = transactionTemplate.execute(status -> claim(batchLimit));
+                claimed.forEach(this::dispatch);
+                limit = claimed.size() < batchLimit ? 0 : Math.min(batchSize, permits.availablePermits());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Не удалось получить заказы для обработки", e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${bookstore.orders.processing.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteProcessedBefore(before));
+        if (deleted != null && deleted > 0) {
+            logger.debug("Удалено обработанных записей outbox: {}", deleted);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Незавершённые записи после остановки будут выданы повторно по истечении аренды
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    // Выданные записи откладываются на время аренды: если обработчик не успеет или упадёт,
+    // запись снова станет доступной
+    private List<OrderOutbox> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutbox> batch = outboxRepository.findReadyForUpdate(now, maxAttempts, PageRequest.of(0, limit));
+        for (OrderOutbox event : batch) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setAvailableAt(now.plusSeconds(leaseSeconds));
+        }
+        return batch;
+    }
+    
+    private void dispatch(OrderOutbox event) {
+        permits.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Пул уже остановлен, запись вернётся в очередь после аренды
+            permits.release();
+        }
+    }
+    
+    private void process(OrderOutbox event) {
+        Long orderId = event.getOrderId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> advance(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING));
+            transactionTemplate.executeWithoutResult(status -> {
+                advance(orderId, Order.OrderStatus.PROCESSING, Order.OrderStatus.SHIPPED);
+                outboxRepository.markProcessed(event.getId(), LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            fail(event, e);
+        }
+    }
+    
+    private void advance(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        // Заказ, который уже продвинулся дальше или был отменён, не меняется
+        if (orderRepository.updateStatusIfCurrent(orderId, from, to) == 0) {
+            logger.debug("Заказ {} не в статусе {}, переход в {} пропущен", orderId, from, to);
+        }
+    }
+    
+    private void fail(OrderOutbox event, RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        String error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        if (event.getAttempts() >= maxAttempts) {
+            logger.error("Обработка заказа {} прекращена после {} попыток", event.getOrderId(), event.getAttempts(), e);
+        } else {
+            logger.warn("Ошибка обработки заказа {} (попытка {}): {}", event.getOrderId(), event.getAttempts(), message);
+        }
+        try {
+            LocalDateTime retryAt = LocalDateTime.now().plusSeconds(retryBackoffSeconds * event.getAttempts());
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailed(event.getId(), retryAt, error));
+        } catch (RuntimeException markError) {
+            logger.error("Не удалось сохранить ошибку обработки заказа {}", event.getOrderId(), markError);
+        }
+    }
+}
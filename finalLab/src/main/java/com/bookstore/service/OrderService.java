@@ -1,24 +1,48 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.OrderSummaryDto;
+import com.bookstore.exception.ConcurrentUpdateException;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
 import com.bookstore.model.*;
+import com.bookstore.repository.OrderOutboxRepository;
 import com.bookstore.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Параметр сортировки истории заказов -> поле Order. По умолчанию - сначала новые заказы
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "date", "orderDate",
+            "total", "totalAmount",
+            "id", "id");
+    
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    
     @Autowired
     private UserService userService;
     
@@ -26,7 +50,16 @@ public class OrderService {
     private BookService bookService;
     
     @Autowired
-    private WarehouseService warehouseService;
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${bookstore.orders.reservation.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${bookstore.orders.reservation.retry-backoff-ms:50}")
+    private long retryBackoffMs;
     
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
@@ -37,6 +70,29 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Заказ с ID " + id + " не найден"));
     }
     
+    // Заказ с позициями, книгами и покупателем - для страницы заказа
+    @Transactional(readOnly = true)
+    public Order getOrderDetails(Long id) {
+        return orderRepository.findDetailedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Заказ с ID " + id + " не найден"));
+    }
+    
+    // Страница истории заказов: userId и status - необязательные фильтры
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryDto> getOrderSummaries(Long userId, Order.OrderStatus status,
+                                                   int page, int size, String sort, String direction) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String field = SORT_FIELDS.get(sortKey(sort));
+        Sort.Direction dir = "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // Заказы одной секунды (и с одинаковой суммой) упорядочиваются по id, чтобы не кочевать между страницами
+        Sort order = field.equals("id") ? Sort.by(dir, "id") : Sort.by(dir, field).and(Sort.by(dir, "id"));
+        return orderRepository.findSummaries(userId, status, PageRequest.of(Math.max(page, 0), pageSize, order));
+    }
+    
+    public static String sortKey(String sort) {
+        return SORT_FIELDS.containsKey(sort) ? sort : "date";
+    }
+    
     public List<Order> getOrdersByUser(Long userId) {
         userService.getUserById(userId);
         return orderRepository.findByUserId(userId);
@@ -46,33 +102,76 @@ public class OrderService {
         return orderRepository.findByStatus(status);
     }
     
+    // Каждая попытка оформления идёт в отдельной транзакции: при конфликте блокировок
+    // или версий транзакция откатывается и повторяется ограниченное число раз
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order createOrder(Order order) {
         if (order.getId() != null) {
             throw new ValidationException("ID должен быть пустым при создании заказа");
         }
         
-        // Проверяем наличие книг на складе и уменьшаем количество
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeOrder(order));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException(
+                            "Не удалось оформить заказ из-за одновременных изменений склада, повторите попытку", e);
+                }
+                resetIdentifiers(order);
+                pause(retryBackoffMs * attempt);
+            }
+        }
+    }
+    
+    private Order placeOrder(Order order) {
+        // Все книги заказа одним запросом; отсутствующие id перечисляются в ошибке
+        Map<Long, Book> books = bookService.getBooksByIds(order.getOrderItems().stream()
+                        .map(item -> item.getBook().getId())
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, Integer> quantities = new HashMap<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
         for (OrderItem item : order.getOrderItems()) {
-            Book book = bookService.getBookById(item.getBook().getId());
-            Warehouse warehouse = warehouseService.getWarehouseByBookId(book.getId());
-            
-            if (warehouse.getQuantity() < item.getQuantity()) {
-                throw new ValidationException("Недостаточно книг на складе: " + book.getTitle());
-            }
-            
-            warehouse.setQuantity(warehouse.getQuantity() - item.getQuantity());
-            warehouseService.updateWarehouse(warehouse.getId(), warehouse);
+            Book book = books.get(item.getBook().getId());
+            quantities.merge(book.getId(), item.getQuantity(), Integer::sum);
             
             item.setPrice(book.getPrice());
             item.setBook(book);
+            item.setOrder(order);
             totalAmount = totalAmount.add(item.getSubtotal());
         }
         
+        // Списываем остатки атомарно, без чтения склада в Java
+        List<Long> insufficient = stockReservationService.reserve(quantities);
+        if (!insufficient.isEmpty()) {
+            throw new ValidationException("Недостаточно книг на складе: " + books.get(insufficient.get(0)).getTitle());
+        }
+        
         order.setTotalAmount(totalAmount);
+        order.setStatus(Order.OrderStatus.PENDING);
         order.setUser(userService.getUserById(order.getUser().getId()));
         
-        return orderRepository.save(order);
+        // Дальнейшая обработка идёт в фоне (OrderProcessingService): заказ и запись outbox
+        // фиксируются одной транзакцией, поэтому принятый заказ не теряется
+        Order saved = orderRepository.save(order);
+        outboxRepository.save(new OrderOutbox(saved.getId()));
+        return saved;
+    }
+    
+    private void resetIdentifiers(Order order) {
+        order.setId(null);
+        order.getOrderItems().forEach(item -> item.setId(null));
+    }
+    
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValidationException("Оформление заказа прервано");
+        }
     }
     
     public Order updateOrderStatus(Long id, Order.OrderStatus status) {
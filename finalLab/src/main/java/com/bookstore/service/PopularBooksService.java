@@ -0,0 +1,154 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookActivityDto;
+import com.bookstore.dto.PopularBookDto;
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.Genre;
+import com.bookstore.model.Order;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.OrderItemRepository;
+import com.bookstore.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Рейтинг популярных книг для главной страницы. Считается в фоне по заказам и отзывам
+// за скользящее окно и хранится в памяти, поэтому /home не обращается к базе.
+@Service
+public class PopularBooksService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PopularBooksService.class);
+    
+    // Оценка 3 нейтральна: хорошие отзывы поднимают книгу, плохие опускают
+    private static final int NEUTRAL_RATING = 3;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${bookstore.popular.size:6}")
+    private int size;
+    
+    @Value("${bookstore.popular.window-days:30}")
+    private int windowDays;
+    
+    @Value("${bookstore.popular.review-weight:2.0}")
+    private double reviewWeight;
+    
+    private volatile List<PopularBookDto> snapshot = List.of();
+    
+    // Номер снимка, по нему кэшируется разметка блока на главной. Меняется после замены снимка,
+    // поэтому читающий номер раньше снимка может получить только более новый снимок, но не старый
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    
+    public List<PopularBookDto> getPopularBooks() {
+        return snapshot;
+    }
+    
+    public long getSnapshotVersion() {
+        return snapshotVersion.get();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledRefresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${bookstore.popular.refresh-interval-ms:300000}",
+               initialDelayString = "${bookstore.popular.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Остаётся предыдущий снимок, следующая попытка - по расписанию
+            logger.error("Не удалось обновить рейтинг популярных книг", e);
+        }
+    }
+    
+    public void refresh() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        snapshot = List.copyOf(transactionTemplate.execute(status -> computeRanking()));
+        snapshotVersion.incrementAndGet();
+    }
+    
+    private List<PopularBookDto> computeRanking() {
+        LocalDateTime since = LocalDateTime.now().minusDays(windowDays);
+        Map<Long, Double> scores = new HashMap<>();
+        for (BookActivityDto sales : orderItemRepository.sumQuantitiesByBookSince(since, Order.OrderStatus.CANCELLED)) {
+            scores.merge(sales.getBookId(), sales.getTotal().doubleValue(), Double::sum);
+        }
+        for (BookActivityDto ratings : reviewRepository.sumRatingsByBookSince(since)) {
+            double ratingBalance = ratings.getTotal() - (double) NEUTRAL_RATING * ratings.getCount();
+            scores.merge(ratings.getBookId(), reviewWeight * ratingBalance, Double::sum);
+        }
+        
+        Map<Long, Double> ranked = new LinkedHashMap<>();
+        scores.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .forEach(entry -> ranked.put(entry.getKey(), entry.getValue()));
+        
+        // Если активности за период мало, добираем новинками
+        if (ranked.size() < size) {
+            for (Long id : bookRepository.findNewestIds(PageRequest.of(0, size))) {
+                if (ranked.size() >= size) {
+                    break;
+                }
+                ranked.putIfAbsent(id, 0.0);
+            }
+        }
+        
+        Map<Long, Book> books = bookRepository.findByIdIn(ranked.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<PopularBookDto> result = new ArrayList<>();
+        ranked.forEach((id, score) -> {
+            Book book = books.get(id);
+            if (book != null) {
+                result.add(toDto(book, score));
+            }
+        });
+        return result;
+    }
+    
+    private PopularBookDto toDto(Book book, double score) {
+        List<String> authorNames = book.getAuthors().stream()
+                .map(Author::getFullName)
+                .sorted()
+                .collect(Collectors.toList());
+        List<String> genreNames = book.getGenres().stream()
+                .map(Genre::getName)
+                .sorted()
+                .collect(Collectors.toList());
+        return new PopularBookDto(book.getId(), book.getTitle(), book.getDescription(), book.getPrice(),
+                authorNames, genreNames, score);
+    }
+}
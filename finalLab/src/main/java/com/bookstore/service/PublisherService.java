@@ -1,10 +1,14 @@
 package com.bookstore.service;
 
+import com.bookstore.config.CacheConfig;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
+import com.bookstore.model.Book;
 import com.bookstore.model.Publisher;
 import com.bookstore.repository.PublisherRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +21,11 @@ public class PublisherService {
     @Autowired
     private PublisherRepository publisherRepository;
     
+    @Autowired
+    private CatalogDataVersion catalogDataVersion;
+    
+    @Cacheable(CacheConfig.PUBLISHERS)
+    @Transactional(readOnly = true)
     public List<Publisher> getAllPublishers() {
         return publisherRepository.findAll();
     }
@@ -30,27 +39,35 @@ public class PublisherService {
         return publisherRepository.findByNameContainingIgnoreCase(name);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.PUBLISHERS, allEntries = true)
     public Publisher createPublisher(Publisher publisher) {
         if (publisher.getId() != null) {
             throw new ValidationException("ID должен быть пустым при создании издательства");
         }
+        catalogDataVersion.changed();
         return publisherRepository.save(publisher);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.PUBLISHERS, allEntries = true)
     public Publisher updatePublisher(Long id, Publisher publisherDetails) {
         Publisher publisher = getPublisherById(id);
         publisher.setName(publisherDetails.getName());
         publisher.setAddress(publisherDetails.getAddress());
         publisher.setPhone(publisherDetails.getPhone());
         publisher.setEmail(publisherDetails.getEmail());
+        // Имя входит в поисковый текст книг
+        publisher.getBooks().forEach(Book::refreshSearchText);
+        catalogDataVersion.changed();
         return publisherRepository.save(publisher);
     }
     
+    @CacheEvict(cacheNames = CacheConfig.PUBLISHERS, allEntries = true)
     public void deletePublisher(Long id) {
         Publisher publisher = getPublisherById(id);
         if (!publisher.getBooks().isEmpty()) {
             throw new ValidationException("Невозможно удалить издательство с существующими книгами");
         }
+        catalogDataVersion.changed();
         publisherRepository.delete(publisher);
     }
 }
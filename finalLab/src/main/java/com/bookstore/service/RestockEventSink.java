@@ -0,0 +1,10 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.RestockEvent;
+
+// Получатель событий LowStockMonitor: каждый бин с этим интерфейсом получает все события
+// по порядку, в отдельном потоке монитора. Ошибка получателя журналируется и не мешает остальным
+public interface RestockEventSink {
+    
+    void publish(RestockEvent event);
+}
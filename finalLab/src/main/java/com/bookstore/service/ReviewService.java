@@ -1,19 +1,28 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.ReviewDto;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
 import com.bookstore.model.Review;
 import com.bookstore.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Transactional
 public class ReviewService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private ReviewRepository reviewRepository;
     
@@ -23,6 +32,9 @@ public class ReviewService {
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private BookRatingService bookRatingService;
+    
     public List<Review> getAllReviews() {
         return reviewRepository.findAll();
     }
@@ -32,9 +44,38 @@ public class ReviewService {
                 .orElseThrow(() -> new ResourceNotFoundException("Отзыв с ID " + id + " не найден"));
     }
     
-    public List<Review> getReviewsByBook(Long bookId) {
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewDto> getReviewsByBook(Long bookId, Integer rating, String cursor, int size) {
         bookService.getBookById(bookId);
-        return reviewRepository.findByBookIdOrderByReviewDateDesc(bookId);
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new ValidationException("Рейтинг должен быть от 1 до 5");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<ReviewDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reviewRepository.findFirstFeedPage(bookId, rating, limit);
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2);
+            rows = reviewRepository.findFeedPageAfter(bookId, rating, decodeDate(key[1]), KeysetCursor.decodeId(key[0]), limit);
+        }
+        
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ReviewDto> items = new ArrayList<>(rows.subList(0, pageSize));
+        ReviewDto last = items.get(items.size() - 1);
+        return new CursorPage<>(items, KeysetCursor.encode(String.valueOf(last.getId()), last.getReviewDate().toString()));
+    }
+    
+    private LocalDateTime decodeDate(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
     }
     
     public List<Review> getReviewsByUser(Long userId) {
@@ -48,19 +89,27 @@ public class ReviewService {
         }
         review.setUser(userService.getUserById(review.getUser().getId()));
         review.setBook(bookService.getBookById(review.getBook().getId()));
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        bookRatingService.applyChange(saved.getBook().getId(), saved.getRating(), null);
+        return saved;
     }
     
     public Review updateReview(Long id, Review reviewDetails) {
         Review review = getReviewById(id);
+        Integer previousRating = review.getRating();
         review.setRating(reviewDetails.getRating());
         review.setComment(reviewDetails.getComment());
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        if (!previousRating.equals(saved.getRating())) {
+            bookRatingService.applyChange(saved.getBook().getId(), saved.getRating(), previousRating);
+        }
+        return saved;
     }
     
     public void deleteReview(Long id) {
         Review review = getReviewById(id);
         reviewRepository.delete(review);
+        bookRatingService.applyChange(review.getBook().getId(), null, review.getRating());
     }
 }
 
@@ -0,0 +1,60 @@
+package com.bookstore.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class StockReservationService {
+    
+    // Условное атомарное списание: строка меняется только если остатка хватает
+    private static final String RESERVE_SQL =
+            "UPDATE warehouse SET quantity = quantity - ?, version = version + 1 " +
+            "WHERE book_id = ? AND quantity >= ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+    
+    // Списывает остатки по всем позициям одним batch-запросом в текущей транзакции.
+    // Возвращает id книг, для которых остатка не хватило; при непустом результате
+    // вызывающий код должен откатить транзакцию.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> reserve(Map<Long, Integer> quantitiesByBookId) {
+        // Строки блокируются в порядке book_id, чтобы параллельные заказы не попадали в дедлок
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantitiesByBookId).entrySet());
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        });
+        
+        List<Long> insufficient = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    insufficient.add(lines.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        if (insufficient.isEmpty()) {
+            lowStockMonitor.stockReserved(quantitiesByBookId.keySet());
+        }
+        return insufficient;
+    }
+}
@@ -9,6 +9,7 @@ import com.bookstore.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
@@ -28,7 +29,17 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private BookRatingService bookRatingService;
+    
+    // Пароль хешируется до первого обращения к базе: при open-in-view соединение, взятое первым запросом,
+    // остаётся за EntityManager запроса до его конца, и ожидание пула PasswordEncoder держало бы его занятым.
+    // Без общей транзакции, чтобы соединение не бралось и при её открытии. Одновременная регистрация
+    // с тем же именем или email отклоняется уникальными ограничениями
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(UserRegistrationDto registrationDto) {
+        String passwordHash = passwordEncoder.encode(registrationDto.getPassword());
+        
         if (userRepository.existsByUsername(registrationDto.getUsername())) {
             throw new ValidationException("Пользователь с таким именем уже существует");
         }
@@ -40,7 +51,7 @@ public class UserService {
         User user = new User();
         user.setUsername(registrationDto.getUsername());
         user.setEmail(registrationDto.getEmail());
-        user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
+        user.setPassword(passwordHash);
         user.setFullName(registrationDto.getFullName());
         user.setPhone(registrationDto.getPhone());
         user.setAddress(registrationDto.getAddress());
@@ -78,6 +89,9 @@ public class UserService {
     
     public void deleteUser(Long id) {
         User user = getUserById(id);
+        // Отзывы пользователя удаляются каскадом, их оценки снимаются с рейтингов книг
+        user.getReviews().forEach(review ->
+                bookRatingService.applyChange(review.getBook().getId(), null, review.getRating()));
         userRepository.delete(user);
     }
 }
@@ -3,6 +3,7 @@ package com.bookstore.service;
 import com.bookstore.exception.ResourceNotFoundException;
 import com.bookstore.exception.ValidationException;
 import com.bookstore.model.Warehouse;
+import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.WarehouseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -17,11 +18,23 @@ public class WarehouseService {
     @Autowired
     private WarehouseRepository warehouseRepository;
     
+    @Autowired
+    private BookRepository bookRepository;
+    
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+    
+    // Записи склада с книгами, затем связи этих книг одним запросом: список сериализуется
+    // уже после фиксации транзакции, и ленивые связи догружались бы по запросу на книгу
     public List<Warehouse> getAllWarehouses() {
-        return warehouseRepository.findAll();
+        List<Warehouse> warehouses = warehouseRepository.findAll();
+        if (!warehouses.isEmpty()) {
+            bookRepository.findByIdIn(warehouses.stream().map(warehouse -> warehouse.getBook().getId()).toList());
+        }
+        return warehouses;
     }
     
     public Warehouse getWarehouseById(Long id) {
@@ -37,6 +50,8 @@ public class WarehouseService {
         return warehouse;
     }
     
+    // Произвольный порог для всех позиций - запрос по индексу idx_warehouse_quantity.
+    // Позиции ниже собственного порога отдаёт LowStockMonitor без запроса
     public List<Warehouse> getLowStockItems(Integer threshold) {
         return warehouseRepository.findByQuantityLessThanEqual(threshold);
     }
@@ -49,19 +64,24 @@ public class WarehouseService {
             throw new ValidationException("Книга обязательна");
         }
         warehouse.setBook(bookService.getBookById(warehouse.getBook().getId()));
-        return warehouseRepository.save(warehouse);
+        Warehouse saved = warehouseRepository.save(warehouse);
+        lowStockMonitor.stockChanged(saved);
+        return saved;
     }
     
     public Warehouse updateWarehouse(Long id, Warehouse warehouseDetails) {
         Warehouse warehouse = getWarehouseById(id);
         warehouse.setQuantity(warehouseDetails.getQuantity());
         warehouse.setMinThreshold(warehouseDetails.getMinThreshold());
-        return warehouseRepository.save(warehouse);
+        Warehouse saved = warehouseRepository.save(warehouse);
+        lowStockMonitor.stockChanged(saved);
+        return saved;
     }
     
     public void deleteWarehouse(Long id) {
         Warehouse warehouse = getWarehouseById(id);
         warehouseRepository.delete(warehouse);
+        lowStockMonitor.stockRemoved(warehouse.getBook().getId());
     }
 }
 
@@ -0,0 +1,126 @@
+-- Исходная схема книжного магазина: совпадает с той, что Hibernate создавал при ddl-auto=update,
+-- поэтому существующая база принимается как версия 1 (spring.flyway.baseline-on-migrate).
+-- Все изменения после неё - только в следующих миграциях, этот файл не меняется
+
+CREATE TABLE roles (
+    id BIGSERIAL NOT NULL,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGSERIAL NOT NULL,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    full_name VARCHAR(255),
+    phone VARCHAR(255),
+    address VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+    role_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, user_id)
+);
+
+CREATE TABLE authors (
+    id BIGSERIAL NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    biography VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE publishers (
+    id BIGSERIAL NOT NULL,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    address VARCHAR(255),
+    phone VARCHAR(255),
+    email VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE genres (
+    id BIGSERIAL NOT NULL,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE books (
+    id BIGSERIAL NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    price NUMERIC(10,2) NOT NULL,
+    pages INTEGER,
+    publication_year INTEGER,
+    description VARCHAR(255),
+    publisher_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE book_authors (
+    author_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    PRIMARY KEY (author_id, book_id)
+);
+
+CREATE TABLE book_genres (
+    book_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL,
+    PRIMARY KEY (book_id, genre_id)
+);
+
+CREATE TABLE orders (
+    id BIGSERIAL NOT NULL,
+    user_id BIGINT NOT NULL,
+    order_date TIMESTAMP(6) NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED')),
+    total_amount NUMERIC(10,2) NOT NULL,
+    shipping_address VARCHAR(255),
+    notes VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_items (
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    price NUMERIC(10,2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE reviews (
+    id BIGSERIAL NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    rating INTEGER NOT NULL,
+    comment VARCHAR(255),
+    review_date TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE warehouse (
+    id BIGSERIAL NOT NULL,
+    book_id BIGINT NOT NULL UNIQUE,
+    quantity INTEGER NOT NULL,
+    min_threshold INTEGER,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE user_roles ADD CONSTRAINT FKh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles;
+ALTER TABLE user_roles ADD CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE books ADD CONSTRAINT FKayy5edfrqnegqj3882nce6qo8 FOREIGN KEY (publisher_id) REFERENCES publishers;
+ALTER TABLE book_authors ADD CONSTRAINT FKo86065vktj3hy1m7syr9cn7va FOREIGN KEY (author_id) REFERENCES authors;
+ALTER TABLE book_authors ADD CONSTRAINT FKbhqtkv2cndf10uhtknaqbyo0a FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE book_genres ADD CONSTRAINT FK6ce5ct13whb85xqu83jmceboj FOREIGN KEY (genre_id) REFERENCES genres;
+ALTER TABLE book_genres ADD CONSTRAINT FKtqnlma9c5byf3gfqsuu0ebrl5 FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE orders ADD CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE order_items ADD CONSTRAINT FKbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_items ADD CONSTRAINT FKi4ptndslo2pyfp9r1x0eulh9g FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE reviews ADD CONSTRAINT FK6a9k6xvev80se5rreqvuqr7f9 FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE reviews ADD CONSTRAINT FKcgy7qjc1r99dp117y9en6lxye FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE warehouse ADD CONSTRAINT FKc0wh8e82qvw3l1vtihhysmypx FOREIGN KEY (book_id) REFERENCES books;
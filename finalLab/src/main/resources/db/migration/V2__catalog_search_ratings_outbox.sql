@@ -0,0 +1,38 @@
+-- Колонки, таблицы и последовательность, которых нет в исходной схеме (V1).
+-- IF NOT EXISTS: база, созданная через ddl-auto=update уже после части этих изменений,
+-- принимается как версия 1 и может содержать их
+
+-- id книг выделяются блоками по 50 (allocationSize в Book). Последовательность создана BIGSERIAL в V1,
+-- поэтому уже выданные id не пересекаются с новыми
+ALTER SEQUENCE books_id_seq INCREMENT BY 50;
+
+-- Текст для полнотекстового поиска: у существующих книг заполняется при старте (DataInitializer)
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_text TEXT;
+
+-- Агрегаты оценок (BookRating): у существующих книг пересчитываются по reviews при старте (BookRatingService)
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_sum INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_1 INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_2 INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_3 INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_4 INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS rating_5 INTEGER DEFAULT 0 NOT NULL;
+
+-- Версия строки склада: условное списание остатков и порядок событий LowStockMonitor
+ALTER TABLE warehouse ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Outbox принятых заказов для фоновой обработки (OrderProcessingService)
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    attempts INTEGER NOT NULL,
+    processed_at TIMESTAMP(6),
+    last_error VARCHAR(500),
+    PRIMARY KEY (id)
+);
+
+-- Keyset-пагинация каталога по (title, id) и ленты отзывов книги
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+CREATE INDEX IF NOT EXISTS idx_reviews_book_date_id ON reviews (book_id, review_date DESC, id DESC);
@@ -0,0 +1,40 @@
+-- Индексы под частые запросы. IF EXISTS / IF NOT EXISTS: в базах, принятых как версия 1,
+-- часть индексов уже могла быть создана вручную скриптом create_database.sql
+
+-- Дублируют уникальные ограничения или более широкие составные индексы
+DROP INDEX IF EXISTS idx_books_title;
+DROP INDEX IF EXISTS idx_books_isbn;
+DROP INDEX IF EXISTS idx_warehouse_book_id;
+DROP INDEX IF EXISTS idx_reviews_book_id;
+DROP INDEX IF EXISTS idx_orders_user_id;
+DROP INDEX IF EXISTS idx_orders_status;
+
+-- Первичные ключи связей многие-ко-многим покрывают только один порядок колонок:
+-- book_genres (book_id, genre_id) - нужен обратный для findByGenresId,
+-- book_authors (author_id, book_id) - обратный для загрузки авторов книг,
+-- user_roles (role_id, user_id) - обратный для загрузки ролей при входе
+CREATE INDEX IF NOT EXISTS idx_book_genres_genre_book ON book_genres (genre_id, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_authors_book_author ON book_authors (book_id, author_id);
+CREATE INDEX IF NOT EXISTS idx_user_roles_user_role ON user_roles (user_id, role_id);
+
+CREATE INDEX IF NOT EXISTS idx_books_publisher_id ON books (publisher_id);
+
+-- findByUserId / findByStatus с выдачей от новых заказов, окно популярных книг по дате
+CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_date ON orders (status, order_date DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date);
+
+-- Позиции заказа: покрывающий индекс для суммирования продаж по книгам без чтения таблицы
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id) INCLUDE (book_id, quantity);
+CREATE INDEX IF NOT EXISTS idx_order_items_book_id ON order_items (book_id);
+
+CREATE INDEX IF NOT EXISTS idx_reviews_user_id ON reviews (user_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_review_date ON reviews (review_date);
+
+-- Необработанные записи outbox (OrderProcessingService)
+CREATE INDEX IF NOT EXISTS idx_order_outbox_pending ON order_outbox (id) WHERE processed_at IS NULL;
+
+-- Полнотекстовый поиск по книгам (BookRepository.searchRanked)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_books_search_fts ON books USING gin (to_tsvector('simple', coalesce(search_text, '')));
+CREATE INDEX IF NOT EXISTS idx_books_search_trgm ON books USING gin (search_text gin_trgm_ops);
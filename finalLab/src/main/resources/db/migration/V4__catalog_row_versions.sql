@@ -0,0 +1,6 @@
+-- Версии строк каталога (@Version в Book, Author, Genre, Publisher): оптимистическая блокировка
+-- и ETag ответов API. Существующие строки начинают с версии 0
+ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE authors ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE genres ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE publishers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
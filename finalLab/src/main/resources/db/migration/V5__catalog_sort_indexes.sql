@@ -0,0 +1,4 @@
+-- Сортировки страницы каталога /web/books: по цене и по году издания с id как последним ключом.
+-- Сортировку по названию покрывает idx_books_title_id
+CREATE INDEX IF NOT EXISTS idx_books_price_id ON books (price, id);
+CREATE INDEX IF NOT EXISTS idx_books_publication_year_id ON books (publication_year, id);
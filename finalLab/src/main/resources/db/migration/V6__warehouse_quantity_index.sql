@@ -0,0 +1,3 @@
+-- Выборка склада по произвольному порогу остатка (GET /api/warehouse/low-stock?threshold=).
+-- Позиции ниже собственного порога отдаёт LowStockMonitor из памяти
+CREATE INDEX IF NOT EXISTS idx_warehouse_quantity ON warehouse (quantity);
@@ -0,0 +1,98 @@
+package com.bookstore;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Publisher;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.PublisherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Условные запросы к карточке книги: кэширование только на клиенте и изменение по If-Match
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class BookConditionalRequestTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    private Long bookId;
+    
+    private Long publisherId;
+    
+    @BeforeEach
+    void createBook() {
+        Publisher publisher = publisherRepository.save(new Publisher("Издательство " + System.nanoTime()));
+        Book book = new Book("Условный запрос", "isbn-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("300.00"), 200, 2020);
+        book.setPublisher(publisher);
+        bookId = bookRepository.save(book).getId();
+        publisherId = publisher.getId();
+    }
+    
+    @Test
+    void catalogResponsesAreCachedOnlyByTheClient() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.AUTHORIZATION)))
+                .andReturn();
+        
+        mockMvc.perform(get("/api/books/" + bookId)
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.AUTHORIZATION)));
+    }
+    
+    @Test
+    void updateWithStaleIfMatchIsRejected() throws Exception {
+        String eTag = mockMvc.perform(get("/api/books/" + bookId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        mockMvc.perform(update("Первая правка", eTag))
+                .andExpect(status().isOk());
+        // Вторая правка основана на той же, уже устаревшей копии
+        mockMvc.perform(update("Вторая правка", eTag))
+                .andExpect(status().isPreconditionFailed());
+        
+        String current = mockMvc.perform(get("/api/books/" + bookId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(update("Вторая правка", current))
+                .andExpect(status().isOk());
+    }
+    
+    private RequestBuilder update(String title, String ifMatch) {
+        String body = "{\"title\":\"" + title + "\",\"isbn\":\"isbn-" + bookId + "-0000\",\"price\":300.00," +
+                "\"pages\":200,\"publicationYear\":2020,\"publisher\":{\"id\":" + publisherId + "}}";
+        return put("/api/books/" + bookId).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .content(body);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bookstore;
+
+import com.bookstore.model.Book;
+import com.bookstore.model.Publisher;
+import com.bookstore.repository.PublisherRepository;
+import com.bookstore.service.BookRatingService;
+import com.bookstore.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Таблица книг из кэша фрагментов: повторный показ страницы не обращается к базе даже за версией,
+// а изменение книги или рейтинга через сервисы сразу даёт новую версию
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class CatalogGridCacheTest {
+    
+    private static final String PAGE = "/web/books?size=100&sort=id&dir=desc";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BookRatingService bookRatingService;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    private Statistics statistics;
+    
+    private Book book;
+    
+    @BeforeEach
+    void createBook() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Book details = new Book("Таблица " + System.nanoTime(), "isbn-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("250.00"), 120, 2021);
+        details.setPublisher(publisherRepository.save(new Publisher("Издательство " + System.nanoTime())));
+        book = bookService.createBook(details);
+    }
+    
+    @Test
+    void cachedGridIsServedWithoutQueriesUntilTheCatalogChanges() throws Exception {
+        mockMvc.perform(get(PAGE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(book.getTitle())));
+        
+        statistics.clear();
+        mockMvc.perform(get(PAGE)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        
+        String title = book.getTitle() + " (новое издание)";
+        Book details = new Book(title, book.getIsbn(), book.getPrice(), book.getPages(), book.getPublicationYear());
+        details.setPublisher(book.getPublisher());
+        bookService.updateBook(book.getId(), details);
+        mockMvc.perform(get(PAGE))
+                .andExpect(content().string(containsString(title)));
+        
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> bookRatingService.applyChange(book.getId(), 5, null));
+        mockMvc.perform(get(PAGE)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(1);
+    }
+    
+    @Test
+    void gridFilteredByPriceIsNotCached() throws Exception {
+        String page = PAGE + "&minPrice=" + System.nanoTime() % 100;
+        mockMvc.perform(get(page)).andExpect(status().isOk());
+        
+        statistics.clear();
+        mockMvc.perform(get(page)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+}
@@ -0,0 +1,161 @@
+package com.bookstore;
+
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.Genre;
+import com.bookstore.model.Publisher;
+import com.bookstore.model.Warehouse;
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.GenreRepository;
+import com.bookstore.repository.PublisherRepository;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.repository.WarehouseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число SQL-запросов на запрос к API по статистике Hibernate. Двадцати книг достаточно: при N+1
+// число запросов растёт с каталогом и сразу расходится с ожидаемым. Кэши (L2 Hibernate и Spring Cache)
+// очищаются перед каждым замером, поэтому считается холодный запрос
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class FetchPlanStatementCountTest {
+    
+    private static final int CATALOG_SIZE = 20;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private AuthorRepository authorRepository;
+    
+    @Autowired
+    private GenreRepository genreRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final List<Long> bookIds = new ArrayList<>();
+    
+    // Каталог дополняется до CATALOG_SIZE книг на складе, с двумя авторами и двумя жанрами у каждой.
+    // Контекст и база общие с другими тестами, поэтому заказываются только книги, заведённые здесь
+    @BeforeEach
+    void seedCatalog() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long i = warehouseRepository.count(); i < CATALOG_SIZE; i++) {
+                Publisher publisher = publisherRepository.save(new Publisher("Издательство " + i));
+                Author first = authorRepository.save(new Author("Автор", "Первый " + i));
+                Author second = authorRepository.save(new Author("Автор", "Второй " + i));
+                Genre genre = genreRepository.save(new Genre("Жанр " + i));
+                
+                Book book = new Book("Книга " + i, "isbn-stat-" + i, new BigDecimal("100.00"), 100, 2000);
+                book.setPublisher(publisher);
+                book.setAuthors(new HashSet<>(Set.of(first, second)));
+                book.setGenres(new HashSet<>(Set.of(genre, genreRepository.findAll().get(0))));
+                bookRepository.save(book);
+                
+                Warehouse warehouse = new Warehouse(book, 1000);
+                warehouse.setMinThreshold(5);
+                warehouseRepository.save(warehouse);
+            }
+        });
+        bookIds.clear();
+        warehouseRepository.findAll().forEach(warehouse -> bookIds.add(warehouse.getBook().getId()));
+    }
+    
+    @Test
+    void bookListLoadsPublishersWithBooksAndAssociationsInBatches() throws Exception {
+        // Четыре отметки версий для ETag (книги, авторы, жанры, издательства), книги с издательствами,
+        // затем авторы и жанры всех книг порциями по default_batch_fetch_size
+        assertThat(statementsFor(get("/api/books"))).isEqualTo(7);
+    }
+    
+    @Test
+    void bookDetailIsOneQueryPlusVersionStamp() throws Exception {
+        // Версия для ETag и карточка с издательством, авторами и жанрами
+        assertThat(statementsFor(get("/api/books/" + bookIds.get(CATALOG_SIZE / 2)))).isEqualTo(2);
+    }
+    
+    @Test
+    void orderPricingLoadsAllBooksOfTheOrderAtOnce() throws Exception {
+        Long userId = userRepository.findByUsername("admin").orElseThrow().getId();
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            items.append(i == 0 ? "" : ",")
+                    .append("{\"book\":{\"id\":").append(bookIds.get(i)).append("},\"quantity\":1}");
+        }
+        String body = "{\"user\":{\"id\":" + userId + "},\"totalAmount\":0,\"orderItems\":[" + items + "]}";
+        
+        // Списание остатков идёт через JdbcTemplate и в статистику Hibernate не попадает
+        long statements = statementsFor(post("/api/orders").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(body),
+                201);
+        // Книги заказа со связями, остатки для монитора, покупатель, вставки заказа и outbox и по вставке
+        // на позицию: id позиций выдаёт IDENTITY, поэтому JDBC batching для них не работает
+        assertThat(statements).isEqualTo(5 + 5);
+    }
+    
+    @Test
+    void warehouseListLoadsBooksWithRows() throws Exception {
+        // Склад с книгами, затем издательства, авторы и жанры этих книг одним запросом
+        assertThat(statementsFor(get("/api/warehouse"))).isEqualTo(2);
+    }
+    
+    private long statementsFor(RequestBuilder request) throws Exception {
+        return statementsFor(request, 200);
+    }
+    
+    private long statementsFor(RequestBuilder request, int expectedStatus) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        mockMvc.perform(request).andExpect(status().is(expectedStatus));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,153 @@
+package com.bookstore;
+
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.Genre;
+import com.bookstore.model.Publisher;
+import com.bookstore.model.Warehouse;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.PublisherRepository;
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Схема из миграций V1..Vn на PostgreSQL против сущностей: контекст поднимается только если
+// ddl-auto=validate не нашёл расхождений. Остальные тесты идут на H2 со схемой от Hibernate и миграции
+// не проверяют. База - контейнер Testcontainers или уже запущенный PostgreSQL
+// (-Dbookstore.test.postgres.url=... -Dbookstore.test.postgres.username=... -Dbookstore.test.postgres.password=...);
+// без Docker и без адреса тест пропускается
+@SpringBootTest
+@ActiveProfiles({"test", "postgres"})
+@EnabledIf("postgresAvailable")
+class MigrationSchemaTest {
+    
+    private static final String EXTERNAL_URL = System.getProperty("bookstore.test.postgres.url");
+    
+    private static PostgreSQLContainer<?> postgres;
+    
+    @Autowired
+    private Flyway flyway;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    static boolean postgresAvailable() {
+        return EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("bookstore.test.postgres.username"));
+            registry.add("spring.datasource.password", () -> System.getProperty("bookstore.test.postgres.password"));
+            return;
+        }
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+    
+    @AfterAll
+    static void stopContainer() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+    
+    @Test
+    void allMigrationsAreApplied() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current()).isNotNull();
+    }
+    
+    // Колонки @Version должны быть в миграциях: validate проверяет их наличие и тип, а не то, что они NOT NULL
+    @Test
+    void versionColumnsExistAndAreNotNull() {
+        for (Class<?> entity : List.of(Book.class, Author.class, Genre.class, Publisher.class, Warehouse.class)) {
+            String table = entity.getAnnotation(Table.class).name();
+            String column = versionColumn(entity);
+            String nullable = jdbcTemplate.queryForObject(
+                    "SELECT is_nullable FROM information_schema.columns " +
+                            "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                    String.class, table, column);
+            assertThat(nullable).as("%s.%s", table, column).isEqualTo("NO");
+        }
+    }
+    
+    // allocationSize = 50 у Book работает только при таком же шаге последовательности, иначе id пересекаются
+    @Test
+    void bookSequenceIncrementMatchesAllocationSize() {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'books_id_seq'",
+                Long.class);
+        assertThat(increment).isEqualTo(50L);
+        
+        Long first = saveBook().getId();
+        Long second = saveBook().getId();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE id IN (?, ?)", Long.class, first, second))
+                .isEqualTo(2L);
+    }
+    
+    // Колонки BookRating не пишутся Hibernate: новая книга получает нули из DEFAULT миграции
+    @Test
+    void ratingColumnsGetDatabaseDefaults() {
+        Long bookId = saveBook().getId();
+        
+        Book book = transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow());
+        assertThat(book.getRating().getCount()).isZero();
+        assertThat(book.getRating().getSum()).isZero();
+        
+        transactionTemplate.executeWithoutResult(status -> bookRepository.applyRatingChange(bookId, 4, 0));
+        Book rated = transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow());
+        assertThat(rated.getRating().getCount()).isEqualTo(1);
+        assertThat(rated.getRating().getSum()).isEqualTo(4);
+    }
+    
+    private Book saveBook() {
+        Book book = new Book("Миграции", "isbn-" + System.nanoTime() % 1_000_000_000L,
+                new BigDecimal("100.00"), 100, 2024);
+        book.setPublisher(publisherRepository.save(new Publisher("Издательство " + System.nanoTime())));
+        return bookRepository.save(book);
+    }
+    
+    private static String versionColumn(Class<?> entity) {
+        for (Field field : entity.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Version.class)) {
+                Column column = field.getAnnotation(Column.class);
+                return column != null && !column.name().isEmpty() ? column.name() : field.getName();
+            }
+        }
+        throw new IllegalStateException("Нет @Version в " + entity.getSimpleName());
+    }
+}
@@ -0,0 +1,82 @@
+package com.bookstore;
+
+import com.bookstore.model.Order;
+import com.bookstore.model.User;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Страница истории заказов в API: покупатель видит только свои заказы, фильтр по пользователю - для персонала
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderPageAccessTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @BeforeEach
+    void createOrders() {
+        createOrder("admin");
+        createOrder("user");
+    }
+    
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void customerSeesOnlyOwnOrders() throws Exception {
+        mockMvc.perform(get("/api/orders/page").param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", everyItem(is("user"))));
+        
+        mockMvc.perform(get("/api/orders/page").param("userId", String.valueOf(userId("admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", everyItem(is("user"))));
+    }
+    
+    @Test
+    @WithMockUser(username = "manager", roles = "MANAGER")
+    void staffFiltersByAnyCustomer() throws Exception {
+        mockMvc.perform(get("/api/orders/page").param("userId", String.valueOf(userId("admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", everyItem(is("admin"))));
+        
+        mockMvc.perform(get("/api/orders/page").param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username", hasItem("admin")))
+                .andExpect(jsonPath("$.content[*].username", hasItem("user")));
+    }
+    
+    private void createOrder(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(new BigDecimal("100.00"));
+        orderRepository.save(order);
+    }
+    
+    private Long userId(String username) {
+        return userRepository.findByUsername(username).orElseThrow().getId();
+    }
+}
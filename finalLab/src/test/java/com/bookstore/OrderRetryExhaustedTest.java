@@ -0,0 +1,76 @@
+package com.bookstore;
+
+import com.bookstore.exception.ConcurrentUpdateException;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.Publisher;
+import com.bookstore.model.User;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.PublisherRepository;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.service.OrderService;
+import com.bookstore.service.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Конфликт блокировок склада, не проходящий и после повторов: заказ отклоняется ConcurrentUpdateException
+// (409, можно повторить), а не ошибкой проверки, как при нехватке остатка
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderRetryExhaustedTest {
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @MockBean
+    private StockReservationService stockReservationService;
+    
+    @Value("${bookstore.orders.reservation.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Test
+    void exhaustedRetriesAreReportedAsConflict() {
+        Book book = new Book("Спорный тираж", "isbn-contended", new BigDecimal("400.00"), 250, 2023);
+        book.setPublisher(publisherRepository.save(new Publisher("Издательство тиража")));
+        Long bookId = bookRepository.save(book).getId();
+        when(stockReservationService.reserve(anyMap()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        
+        User user = new User();
+        user.setId(userRepository.findByUsername("admin").orElseThrow().getId());
+        Book item = new Book();
+        item.setId(bookId);
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.ZERO);
+        order.getOrderItems().add(new OrderItem(order, item, 1, null));
+        
+        assertThatThrownBy(() -> orderService.createOrder(order))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasCauseInstanceOf(CannotAcquireLockException.class);
+        verify(stockReservationService, times(maxAttempts)).reserve(anyMap());
+    }
+}
@@ -0,0 +1,128 @@
+package com.bookstore;
+
+import com.bookstore.exception.ValidationException;
+import com.bookstore.model.Book;
+import com.bookstore.model.Order;
+import com.bookstore.model.OrderItem;
+import com.bookstore.model.Publisher;
+import com.bookstore.model.User;
+import com.bookstore.model.Warehouse;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.PublisherRepository;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.repository.WarehouseRepository;
+import com.bookstore.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Параллельные заказы одной книги с ограниченным остатком: условное списание в
+// StockReservationService не должно ни уводить склад в минус, ни терять проданные экземпляры
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStockConcurrencyTest {
+    
+    private static final int INITIAL_STOCK = 100;
+    
+    private static final int ORDERS = 500;
+    
+    private static final int THREADS = 32;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void concurrentOrdersSellExactlyTheAvailableStock() throws Exception {
+        Long bookId = transactionTemplate.execute(status -> {
+            Book book = new Book("Горячая новинка", "isbn-hot-title", new BigDecimal("500.00"), 300, 2024);
+            book.setPublisher(publisherRepository.save(new Publisher("Издательство новинки")));
+            bookRepository.save(book);
+            warehouseRepository.save(new Warehouse(book, INITIAL_STOCK));
+            return book.getId();
+        });
+        Long userId = userRepository.findByUsername("admin").orElseThrow().getId();
+        
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.createOrder(newOrder(userId, bookId));
+                        placed.incrementAndGet();
+                    } catch (ValidationException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Любое исключение, кроме отказа по остатку, провалит тест здесь
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        int finalStock = warehouseRepository.findByBookId(bookId).getQuantity();
+        Integer sold = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE book_id = ?", Integer.class, bookId);
+        
+        assertThat(finalStock).isGreaterThanOrEqualTo(0);
+        assertThat(placed.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(ORDERS - INITIAL_STOCK);
+        assertThat(finalStock).isZero();
+        assertThat(sold).isEqualTo(INITIAL_STOCK);
+    }
+    
+    private static Order newOrder(Long userId, Long bookId) {
+        User user = new User();
+        user.setId(userId);
+        Book book = new Book();
+        book.setId(bookId);
+        
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.ZERO);
+        order.getOrderItems().add(new OrderItem(order, book, 1, null));
+        return order;
+    }
+}
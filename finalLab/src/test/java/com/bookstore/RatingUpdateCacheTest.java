@@ -0,0 +1,73 @@
+package com.bookstore;
+
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.model.Publisher;
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.PublisherRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Нативные UPDATE агрегатов рейтинга меняют только books и не должны сбрасывать
+// L2-кэш справочников (авторы, жанры, издательства, роли)
+@SpringBootTest
+@ActiveProfiles("test")
+class RatingUpdateCacheTest {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private AuthorRepository authorRepository;
+    
+    @Autowired
+    private PublisherRepository publisherRepository;
+    
+    private Long bookId;
+    
+    private Long authorId;
+    
+    @BeforeEach
+    void createBookAndCacheAuthor() {
+        bookId = transactionTemplate.execute(status -> {
+            Book book = new Book("Рейтинг и кэш", "isbn-" + System.nanoTime() % 1_000_000_000L,
+                    new BigDecimal("150.00"), 120, 2021);
+            book.setPublisher(publisherRepository.save(new Publisher("Издательство " + System.nanoTime())));
+            return bookRepository.save(book).getId();
+        });
+        authorId = authorRepository.save(new Author("Автор", "Кэшируемый")).getId();
+        entityManagerFactory.getCache().evictAll();
+        transactionTemplate.executeWithoutResult(status -> authorRepository.findById(authorId).orElseThrow());
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isTrue();
+    }
+    
+    @Test
+    void ratingChangeKeepsReferenceCaches() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.applyRatingChange(bookId, 5, 0));
+        
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isTrue();
+    }
+    
+    @Test
+    void ratingRebuildKeepsReferenceCaches() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.rebuildRatings(bookId, bookId));
+        
+        assertThat(entityManagerFactory.getCache().contains(Author.class, authorId)).isTrue();
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookstore;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+// Регистрация не должна держать соединение с базой, пока пароль ждёт пула хеширования:
+// при open-in-view взятое запросом соединение остаётся занятым до конца запроса
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RegistrationConnectionTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+    
+    @Test
+    void passwordIsHashedWithoutHoldingAConnection() throws Exception {
+        AtomicInteger activeWhileHashing = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            activeWhileHashing.set(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+        
+        mockMvc.perform(post("/register").with(csrf())
+                        .param("username", "registration-test")
+                        .param("email", "registration-test@example.com")
+                        .param("password", "Secret123!")
+                        .param("fullName", "Регистрация Тест"))
+                .andExpect(redirectedUrl("/login?success=true"));
+        
+        assertThat(activeWhileHashing.get()).isZero();
+    }
+}
@@ -0,0 +1,22 @@
+-- Исходная схема (соответствует сущностям Category и Product)
+
+create table categories (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(500),
+    deleted boolean not null,
+    primary key (id)
+);
+
+create table products (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(1000),
+    price numeric(12,2) not null,
+    quantity integer not null,
+    deleted boolean not null,
+    category_id bigint,
+    primary key (id)
+);
+
+alter table products add constraint FKog2rp4qthbtt2lfyhfo32lsw9 foreign key (category_id) references categories;
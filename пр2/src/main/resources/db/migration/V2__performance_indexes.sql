@@ -0,0 +1,10 @@
+-- Индексы для фильтрации и сортировки списков (все запросы отбирают только не удалённые записи)
+
+-- findByDeletedFalseAndCategoryId, findByFilters по категории
+create index if not exists idx_products_category_deleted on products (category_id, deleted);
+
+-- findByDeletedFalse*, сортировки по имени и цене
+create index if not exists idx_products_deleted_name on products (deleted, name);
+create index if not exists idx_products_deleted_price on products (deleted, price);
+
+create index if not exists idx_categories_deleted_name on categories (deleted, name);
@@ -0,0 +1,69 @@
+-- Исходная схема (соответствует сущностям Author, Publisher, Genre, Book, BookLoan)
+
+create table authors (
+    id bigint generated by default as identity,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    birth_date date,
+    country varchar(255),
+    biography varchar(1000),
+    primary key (id)
+);
+
+create table publishers (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    address varchar(255),
+    city varchar(255),
+    country varchar(255),
+    email varchar(255),
+    phone varchar(255),
+    primary key (id)
+);
+
+create table genres (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    description varchar(500),
+    primary key (id)
+);
+
+create table books (
+    id bigint generated by default as identity,
+    title varchar(255) not null,
+    isbn varchar(255) unique,
+    publication_year integer,
+    pages integer,
+    price numeric(10,2),
+    total_copies integer not null,
+    available_copies integer not null,
+    description varchar(2000),
+    author_id bigint,
+    publisher_id bigint,
+    primary key (id)
+);
+
+create table book_genres (
+    book_id bigint not null,
+    genre_id bigint not null
+);
+
+create table book_loans (
+    id bigint generated by default as identity,
+    book_id bigint not null,
+    reader_name varchar(255) not null,
+    reader_email varchar(255),
+    reader_phone varchar(255),
+    loan_date date not null,
+    due_date date not null,
+    return_date date,
+    status varchar(255) not null check (status in ('ACTIVE','RETURNED','OVERDUE')),
+    notes varchar(255),
+    primary key (id)
+);
+
+alter table book_genres add constraint FK6ce5ct13whb85xqu83jmceboj foreign key (genre_id) references genres;
+alter table book_genres add constraint FKtqnlma9c5byf3gfqsuu0ebrl5 foreign key (book_id) references books;
+alter table book_loans add constraint FKo6d3xcdy9r2k3qbi4c84p9b6g foreign key (book_id) references books;
+alter table books add constraint FKfjixh2vym2cvfj3ufxj91jem7 foreign key (author_id) references authors;
+alter table books add constraint FKayy5edfrqnegqj3882nce6qo8 foreign key (publisher_id) references publishers;
@@ -0,0 +1,15 @@
+-- Индексы под внешние ключи и частые запросы репозиториев
+
+-- Связь книга-жанр в обе стороны: жанры книги и findByGenreId / countBooks по жанру
+create index if not exists idx_book_genres_book_genre on book_genres (book_id, genre_id);
+create index if not exists idx_book_genres_genre_book on book_genres (genre_id, book_id);
+
+-- findByAuthorId, findByPublisherId, countBooks
+create index if not exists idx_books_author_id on books (author_id);
+create index if not exists idx_books_publisher_id on books (publisher_id);
+
+-- findByBookId, countActiveLoans (book_id + status = 'ACTIVE')
+create index if not exists idx_book_loans_book_status on book_loans (book_id, status);
+
+-- findByStatusOrderByDueDateAsc, findOverdue
+create index if not exists idx_book_loans_status_due on book_loans (status, due_date);